@@ -0,0 +1,539 @@
+/*--------------------------------------------------------------------------------------*/
+/*                                                                                      */
+/*  Batch.java - Runs a script of database commands without the menus, started with     */
+/*               "java Database --batch <script>" (the script is read from the keyboard */
+/*               input when no file is given). Nothing waits or clears the screen, so a */
+/*               script runs as fast as the commands themselves.                        */
+/*                                                                                      */
+/*               Each line holds one command and its values, separated by spaces.       */
+/*               A value with spaces is written in double quotes, "" is an empty value  */
+/*               and \" is a quote inside quotes. Lines starting with # are skipped.    */
+/*               Entry and category numbers start at 1, like in the menus.              */
+/*                                                                                      */
+/*               open <name> <password> [readonly]   create <name> <password> <5 titles>*/
+/*               insert <5 values>                   update <entry> <category> <value>  */
+/*               delete <entries>                    empty                              */
+/*               delete <find, prefix, range, top or query command>                     */
+/*                                   (removes every entry the command selects in one    */
+/*                                    pass over the database)                           */
+/*               find <category> <value>             prefix <category> <prefix>         */
+/*               range <category> <low> <high>       (* for no limit)                   */
+/*               top <category> <n> [smallest]       sort <category> [descending]       */
+/*               view [entry]                        count                              */
+/*               import <file> [header]              (CSV or TSV, saves the database)   */
+/*               sorted <category> [descending]      (lists without changing the order) */
+/*               page <category> <count> [after entry] [descending]                     */
+/*                                   (the next count entries in sorted order after an   */
+/*                                    entry, without sorting the database)              */
+/*               query <query>                       explain <query>  (see Query.java)  */
+/*               stats <category> [query]            (count, sum, min, max, average)    */
+/*               group <category> <aggregates> [WHERE ...]                              */
+/*                                 (count, sum:<category>, min:, max:, avg:, distinct:) */
+/*               export <file> [find, prefix, range, top, sorted, page or query]        */
+/*                                                   (.csv, .json or .ssf file)         */
+/*               begin                               rollback                           */
+/*               commit                              save                               */
+/*               close                                                                  */
+/*                                                                                      */
+/*               Changes are safe on disk after commit, save or close. The open         */
+/*               database is closed (and saved) when the script ends. The script stops  */
+/*               at the first command that fails. The changes after begin are kept by   */
+/*               commit or save, with a single write to the log, and rollback takes all */
+/*               of them back, as does close or a failed command while they are not yet */
+/*               committed. open fails if another session is changing the database,     */
+/*               open ... readonly can still search and view it.                        */
+/*                                                                                      */
+/*--------------------------------------------------------------------------------------*/
+
+import java.io.*;
+import java.util.*;
+
+class Batch
+{
+    private final PrintStream out; // Where the results of the commands are printed
+    private DatabaseSession session = null; // The open database, null if no database is open
+
+
+    Batch (PrintStream out)
+    {
+        this.out = out;
+    }
+
+
+    // Runs every command of a script, returns false if a command failed
+    boolean run (BufferedReader script) throws IOException
+    {
+        String line;
+        int lineNumber = 0;
+
+        try
+        {
+            while ((line = script.readLine ()) != null)
+            {
+                List<String> words;
+
+                lineNumber++;
+                words = split (line);
+                if (words.size () > 0 && !words.get (0).startsWith ("#"))
+                {
+                    execute (words, line);
+                }
+            }
+        }
+        catch (IOException | RuntimeException e)
+        {
+            System.err.println ("Line " + lineNumber + ": " + e.getMessage ());
+            return false;
+        }
+        finally
+        {
+            if (session != null) // The open database is saved, like leaving it through the menu
+            {
+                session.close ();
+                session = null;
+            }
+        }
+        return true;
+    }
+
+
+    // Runs one command, the line is kept as it was typed for the text of a query
+    void execute (List<String> words, String line) throws IOException
+    {
+        String command = words.get (0).toLowerCase ();
+
+        if (command.equals ("open"))
+        {
+            if (words.size () != 4 || !words.get (3).equalsIgnoreCase ("readonly"))
+            {
+                checkCount (words, 3);
+            }
+            closeSession ();
+            session = (words.size () == 4) ? DatabaseSession.openReadOnly (words.get (1), words.get (2)) : DatabaseSession.open (words.get (1), words.get (2));
+        }
+        else if (command.equals ("create"))
+        {
+            checkCount (words, 3 + Database.CATEGORIES);
+            closeSession ();
+            session = DatabaseSession.create (words.get (1), words.get (2), words.subList (3, words.size ()).toArray (new String [0]));
+        }
+        else if (command.equals ("insert"))
+        {
+            checkCount (words, 1 + Database.CATEGORIES);
+            session ().insert (words.subList (1, words.size ()).toArray (new String [0]));
+        }
+        else if (command.equals ("import"))
+        {
+            BulkImport result;
+
+            if (words.size () != 2 && words.size () != 3)
+            {
+                throw new IllegalArgumentException ("import takes a file name and optionally \"header\"");
+            }
+            result = session ().importFile (words.get (1), words.size () == 3 && words.get (2).equalsIgnoreCase ("header"));
+            out.println ("Imported " + result.imported () + " entries, " + result.rejectedCount () + " lines rejected");
+            for (String message : result.rejected ())
+            {
+                System.err.println (message);
+            }
+        }
+        else if (command.equals ("update"))
+        {
+            checkCount (words, 4);
+            session ().update (number (words.get (1)), number (words.get (2)), words.get (3));
+        }
+        else if (command.equals ("delete"))
+        {
+            if (words.size () < 2)
+            {
+                throw new IllegalArgumentException ("delete takes entries, a query or a find, prefix, range or top command");
+            }
+            if (words.get (1).equalsIgnoreCase ("query"))
+            {
+                session ().delete (after (line, 2));
+            }
+            else if (Character.isLetter (words.get (1).charAt (0)))
+            {
+                session ().delete (select (words.subList (1, words.size ())));
+            }
+            else
+            {
+                int[] entries = new int [words.size () - 1];
+
+                for (int i = 0 ; i < entries.length ; i++)
+                {
+                    entries [i] = number (words.get (i + 1));
+                }
+                session ().delete (entries);
+            }
+        }
+        else if (command.equals ("empty"))
+        {
+            checkCount (words, 1);
+            session ().clear ();
+        }
+        else if (command.equals ("find") || command.equals ("prefix") || command.equals ("range") || command.equals ("top") || command.equals ("sorted") || command.equals ("page"))
+        {
+            print (select (words));
+        }
+        else if (command.equals ("export"))
+        {
+            if (words.size () < 2)
+            {
+                throw new IllegalArgumentException ("export takes a file name and optionally a find, prefix, range, top, sorted, page or query command");
+            }
+            session ().export (words.get (1), (words.size () == 2) ? null : words.get (2).equalsIgnoreCase ("query") ? session ().query (after (line, 3)) : select (words.subList (2, words.size ())));
+        }
+        else if (command.equals ("query"))
+        {
+            print (session ().query (after (line, 1)));
+        }
+        else if (command.equals ("stats"))
+        {
+            double[] summary;
+
+            if (words.size () < 2)
+            {
+                throw new IllegalArgumentException ("stats takes a category and optionally a query");
+            }
+            summary = session ().summarize (number (words.get (1)), after (line, 2));
+            out.println ("count " + format (summary [0]) + "\tsum " + format (summary [1]) + "\tmin " + format (summary [2]) + "\tmax " + format (summary [3]) + "\taverage " + format (summary [1] / summary [0]));
+        }
+        else if (command.equals ("group"))
+        {
+            group (words, line);
+        }
+        else if (command.equals ("explain"))
+        {
+            out.println (session ().explain (after (line, 1)));
+        }
+        else if (command.equals ("sort"))
+        {
+            if (words.size () != 2 && words.size () != 3)
+            {
+                throw new IllegalArgumentException ("sort takes a category and optionally \"descending\"");
+            }
+            session ().sort (number (words.get (1)), words.size () == 3 && words.get (2).equalsIgnoreCase ("descending"));
+        }
+        else if (command.equals ("view"))
+        {
+            if (words.size () == 2)
+            {
+                print (new int [] {number (words.get (1))});
+            }
+            else
+            {
+                checkCount (words, 1);
+                print (null);
+            }
+        }
+        else if (command.equals ("count"))
+        {
+            checkCount (words, 1);
+            out.println (session ().size ());
+        }
+        else if (command.equals ("begin"))
+        {
+            checkCount (words, 1);
+            session ().begin ();
+        }
+        else if (command.equals ("commit"))
+        {
+            checkCount (words, 1);
+            session ().commit ();
+        }
+        else if (command.equals ("rollback"))
+        {
+            checkCount (words, 1);
+            session ().rollback ();
+        }
+        else if (command.equals ("save"))
+        {
+            checkCount (words, 1);
+            session ().save ();
+        }
+        else if (command.equals ("close"))
+        {
+            checkCount (words, 1);
+            session ();
+            closeSession ();
+        }
+        else
+        {
+            throw new IllegalArgumentException ("Unknown command \"" + words.get (0) + "\"");
+        }
+    }
+
+
+    // Runs a find, prefix, range, top or sorted command and returns the entries it selects
+    int[] select (List<String> words)
+    {
+        String command = words.get (0).toLowerCase ();
+
+        if (command.equals ("find"))
+        {
+            checkCount (words, 3);
+            return session ().find (number (words.get (1)), words.get (2));
+        }
+        if (command.equals ("prefix"))
+        {
+            checkCount (words, 3);
+            return session ().prefix (number (words.get (1)), words.get (2));
+        }
+        if (command.equals ("range"))
+        {
+            checkCount (words, 4);
+            return session ().range (number (words.get (1)), limit (words.get (2)), limit (words.get (3)));
+        }
+        if (command.equals ("top"))
+        {
+            if (words.size () != 3 && words.size () != 4)
+            {
+                throw new IllegalArgumentException ("top takes a category, a count and optionally \"smallest\"");
+            }
+            return session ().top (number (words.get (1)), Integer.parseInt (words.get (2)), words.size () == 3 || !words.get (3).equalsIgnoreCase ("smallest"));
+        }
+        if (command.equals ("page"))
+        {
+            boolean descending = words.get (words.size () - 1).equalsIgnoreCase ("descending");
+            int values = words.size () - (descending ? 1 : 0); // The words without "descending"
+
+            if (values != 3 && values != 4)
+            {
+                throw new IllegalArgumentException ("page takes a category, a count, optionally the entry the page starts after and optionally \"descending\"");
+            }
+            return session ().page (number (words.get (1)), descending, (values == 4) ? number (words.get (3)) : -1, Integer.parseInt (words.get (2)));
+        }
+        if (command.equals ("sorted"))
+        {
+            if (words.size () != 2 && words.size () != 3)
+            {
+                throw new IllegalArgumentException ("sorted takes a category and optionally \"descending\"");
+            }
+            return session ().sorted (number (words.get (1)), words.size () == 3 && words.get (2).equalsIgnoreCase ("descending"));
+        }
+        throw new IllegalArgumentException ("\"" + words.get (0) + "\" does not select entries, use find, prefix, range, top, sorted or page");
+    }
+
+
+    // Splits a line into words, words in double quotes may hold spaces
+    static List<String> split (String line)
+    {
+        List<String> words = new ArrayList<String> ();
+        StringBuilder word = new StringBuilder ();
+        int i = 0;
+
+        while (i < line.length ())
+        {
+            if (Character.isWhitespace (line.charAt (i)))
+            {
+                i++;
+            }
+            else if (line.charAt (i) == '"') // A quoted word ends at the next quote that is not escaped
+            {
+                word.setLength (0);
+                for (i++ ; i < line.length () && line.charAt (i) != '"' ; i++)
+                {
+                    if (line.charAt (i) == '\\' && i + 1 < line.length ())
+                    {
+                        i++;
+                    }
+                    word.append (line.charAt (i));
+                }
+                if (i == line.length ())
+                {
+                    throw new IllegalArgumentException ("A quote is not closed");
+                }
+                words.add (word.toString ());
+                i++;
+            }
+            else
+            {
+                int start = i;
+
+                while (i < line.length () && !Character.isWhitespace (line.charAt (i)))
+                {
+                    i++;
+                }
+                words.add (line.substring (start, i));
+            }
+        }
+        return words;
+    }
+
+
+    // Returns the rest of a line after its first words, as it was typed
+    private static String after (String line, int words)
+    {
+        int i = 0;
+
+        for (int w = 0 ; w < words ; w++)
+        {
+            while (i < line.length () && Character.isWhitespace (line.charAt (i)))
+            {
+                i++;
+            }
+            if (i < line.length () && line.charAt (i) == '"') // Skips a quoted word up to its closing quote
+            {
+                for (i++ ; i < line.length () && line.charAt (i) != '"' ; i++)
+                {
+                    if (line.charAt (i) == '\\')
+                    {
+                        i++;
+                    }
+                }
+                i++;
+            }
+            else
+            {
+                while (i < line.length () && !Character.isWhitespace (line.charAt (i)))
+                {
+                    i++;
+                }
+            }
+        }
+        return (i < line.length ()) ? line.substring (i).trim () : "";
+    }
+
+
+    // Makes sure a command has the right number of words
+    private static void checkCount (List<String> words, int count)
+    {
+        if (words.size () != count)
+        {
+            throw new IllegalArgumentException (words.get (0) + " takes " + (count - 1) + " value" + (count == 2 ? "" : "s") + ", " + (words.size () - 1) + " were given");
+        }
+    }
+
+
+    // Closes the open database, if there is one
+    private void closeSession () throws IOException
+    {
+        if (session != null)
+        {
+            session.close ();
+            session = null;
+        }
+    }
+
+
+    // Writes a number without a decimal part when it is a whole number
+    private static String format (double number)
+    {
+        if (Double.isNaN (number))
+        {
+            return "-";
+        }
+        return (number == Math.rint (number) && Math.abs (number) < 1e15) ? Long.toString ((long) number) : Double.toString (number);
+    }
+
+
+    // Runs a group command: group <category> <aggregate>... [WHERE ...], an aggregate is count or <function>:<category>
+    // Prints a title line, then one line per group with the group value and its aggregates separated by tabs
+    private void group (List<String> words, String line)
+    {
+        List<Integer> functions = new ArrayList<Integer> (), categories = new ArrayList<Integer> ();
+        StringBuilder titles = new StringBuilder ();
+        GroupBy.Result result;
+        int w;
+
+        if (words.size () < 3)
+        {
+            throw new IllegalArgumentException ("group takes a category, one or more aggregates and optionally a WHERE query");
+        }
+        for (w = 2 ; w < words.size () && !words.get (w).equalsIgnoreCase ("where") ; w++)
+        {
+            String[] parts = words.get (w).split (":", 2);
+            int function = GroupBy.function (parts [0]);
+
+            if (function < 0 || (function == GroupBy.COUNT) != (parts.length == 1))
+            {
+                throw new IllegalArgumentException ("\"" + words.get (w) + "\" is not count, sum:, min:, max:, avg: or distinct: followed by a category");
+            }
+            functions.add (function);
+            categories.add ((function == GroupBy.COUNT) ? 0 : number (parts [1]));
+        }
+        result = session ().group (number (words.get (1)), toArray (functions), toArray (categories), (w < words.size ()) ? after (line, w) : "");
+
+        titles.append (session ().titles () [number (words.get (1))]); // The categories were checked by the group
+        for (int a = 0 ; a < functions.size () ; a++)
+        {
+            titles.append ('\t').append (GroupBy.NAMES [functions.get (a)]);
+            if (functions.get (a) != GroupBy.COUNT)
+            {
+                titles.append (' ').append (session ().titles () [categories.get (a)]);
+            }
+        }
+        out.println (titles);
+        for (int g = 0 ; g < result.keys.length ; g++)
+        {
+            StringBuilder row = new StringBuilder (result.keys [g]);
+
+            for (int a = 0 ; a < functions.size () ; a++)
+            {
+                row.append ('\t').append (format (result.values [a] [g]));
+            }
+            out.println (row);
+        }
+    }
+
+
+    // Returns the search limit of a range, * stands for no limit
+    private static String limit (String word)
+    {
+        return word.equals ("*") ? null : word;
+    }
+
+
+    // Reads an entry or category number of the script, which starts at 1, as a number that starts at 0
+    private static int number (String word)
+    {
+        return Integer.parseInt (word) - 1;
+    }
+
+
+    // Prints entries one per line, the entry number followed by the values separated by tabs, null prints every entry
+    private void print (int[] entries)
+    {
+        StringBuilder line = new StringBuilder ();
+        int count = (entries == null) ? session ().size () : entries.length;
+
+        for (int i = 0 ; i < count ; i++)
+        {
+            int entry = (entries == null) ? i : entries [i];
+            String[] values = session.get (entry);
+
+            line.setLength (0);
+            line.append (entry + 1);
+            for (int c = 0 ; c < values.length ; c++)
+            {
+                line.append ('\t').append (values [c]);
+            }
+            out.println (line);
+        }
+    }
+
+
+    // Returns the open database
+    private DatabaseSession session ()
+    {
+        if (session == null)
+        {
+            throw new IllegalStateException ("No database is open, use open or create first");
+        }
+        return session;
+    }
+
+
+    // Copies a list of numbers into an array
+    private static int[] toArray (List<Integer> list)
+    {
+        int[] array = new int [list.size ()];
+
+        for (int i = 0 ; i < array.length ; i++)
+        {
+            array [i] = list.get (i);
+        }
+        return array;
+    }
+}
@@ -0,0 +1,774 @@
+/*--------------------------------------------------------------------------------------*/
+/*                                                                                      */
+/*  BinaryFormat.java - A compact binary layout for database files, used instead of     */
+/*                      the one value per line text layout when a file is converted.    */
+/*                      Both layouts use the .ssf extension, a binary file is told      */
+/*                      apart by the magic number it starts with.                       */
+/*                                                                                      */
+/*                      Layout of a binary file:                                        */
+/*                                                                                      */
+/*                      Header:  magic number, version, number of categories, and the   */
+/*                               title and encoding of each category                    */
+/*                      Columns: the values of one category after another, each in      */
+/*                               the encoding chosen for it when the file was written:  */
+/*                               LONGS      whole numbers as zig-zag variable length    */
+/*                               DECIMALS   decimal numbers as a whole number without   */
+/*                                          the decimal point and a count of decimal    */
+/*                                          places, so 6.80 is stored as 680 and 2      */
+/*                               DICTIONARY the distinct values once, then a variable   */
+/*                                          length code for each entry                  */
+/*                               PLAIN      each value as a length and UTF-8 bytes      */
+/*                      Footer:  number of entries, then the position, length and       */
+/*                               CRC32 of the header and of every column                */
+/*                      End:     CRC32 of the footer and the position of the footer     */
+/*                                                                                      */
+/*                      A number is only stored as a number if it is written back as    */
+/*                      exactly the same text, so a file converted to binary and back   */
+/*                      holds the same values it started with.                          */
+/*                                                                                      */
+/*                      Run "java BinaryFormat binary|text <file.ssf> ..." to convert   */
+/*                      database files between the two layouts, or segmented to split   */
+/*                      them into segment files (see SegmentedFormat).                  */
+/*                                                                                      */
+/*--------------------------------------------------------------------------------------*/
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.util.*;
+import java.util.zip.*;
+
+class BinaryFormat
+{
+    static final int MAGIC = 0x53534642; // "SSFB", marks the start of a binary database file
+    static final int VERSION = 1; // The version of the binary layout
+    static final int END_SIZE = 4 + 8; // The footer CRC32 and the footer position at the end of the file
+    static final int BUFFER_SIZE = 1 << 16; // Columns are read and written in blocks of 64 KB
+    static final int DICTIONARY_SIZE = 1 << 16; // A category with more distinct values than this is not worth a dictionary
+
+    static final byte PLAIN = 0; // Encoding of a category stored as text
+    static final byte DICTIONARY = 1; // Encoding of a category with few distinct values
+    static final byte LONGS = 2; // Encoding of a category of whole numbers
+    static final byte DECIMALS = 3; // Encoding of a category of decimal numbers
+    static final int MAX_DIGITS = 18; // The most digits a decimal number can have and still fit in a long
+    static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18}; // Every one is an exact double
+
+
+    // Converts database files between the text layout, the binary layout and the segmented layout (see SegmentedFormat)
+    public static void main (String[] args) throws IOException
+    {
+        int layout = (args.length < 2) ? -1 : Arrays.asList ("text", "binary", "segmented").indexOf (args [0]); // In the order of the layout numbers in Database
+
+        if (layout < 0)
+        {
+            System.out.println ("Usage: java BinaryFormat binary|text|segmented <file.ssf> ...");
+            return;
+        }
+        for (int i = 1 ; i < args.length ; i++)
+        {
+            convert (args [i], layout);
+            System.out.println ("Converted \"" + args [i] + "\" to the " + args [0] + " layout.");
+        }
+    }
+
+
+    // Rewrites a database file in another layout (Database.TEXT_LAYOUT, BINARY_LAYOUT or SEGMENTED_LAYOUT),
+    // changes that are still in its write-ahead log are included
+    static void convert (String fileName, int layout) throws IOException
+    {
+        String[] database = {fileName};
+        DatabaseLock writer = DatabaseLock.writer (fileName); // A session that is changing the database would save over the converted file
+        DatabaseLock lock;
+        Table table;
+
+        if (writer == null)
+        {
+            throw new IOException (fileName + " is being changed in another session");
+        }
+        try
+        {
+            table = Database.readDatabaseFile (database);
+            lock = DatabaseLock.write (fileName);
+            try
+            {
+                Database.writeTableFile (fileName, table, layout);
+                table.log ().reset (); // The file now holds every change
+            }
+            finally
+            {
+                lock.release ();
+            }
+            table.log ().close ();
+        }
+        finally
+        {
+            writer.release ();
+        }
+    }
+
+
+    // Returns true if a file starts with the magic number of the binary layout
+    static boolean isBinary (String fileName)
+    {
+        try
+        {
+            DataInputStream in = new DataInputStream (new FileInputStream (fileName));
+
+            try
+            {
+                return in.readInt () == MAGIC;
+            }
+            finally
+            {
+                in.close ();
+            }
+        }
+        catch (IOException e) // Missing files and files shorter than the magic number are not binary
+        {
+            return false;
+        }
+    }
+
+
+    // Reads a binary database file into a table
+    static Table read (String fileName) throws IOException
+    {
+        return read (fileName, null);
+    }
+
+
+    // Reads the entries of a binary database file and adds them to the end of a table, or to a new table if it is null
+    static Table read (String fileName, Table table) throws IOException
+    {
+        FileChannel channel = FileChannel.open (new File (fileName).toPath ());
+
+        try
+        {
+            long length = channel.size ();
+            BlockReader end, footer, header;
+            int rows, columns, headerChecksum, footerChecksum;
+            long headerLength, footerPosition;
+
+            if (length < 4 + END_SIZE)
+            {
+                throw new IOException ("\"" + fileName + "\" is too short to be a binary database file");
+            }
+            end = new BlockReader (channel, length - END_SIZE, END_SIZE); // The end of the file tells where the footer is
+            footerChecksum = (int) end.readFixed (4);
+            footerPosition = end.readFixed (8);
+            if (footerPosition < 0 || footerPosition > length - END_SIZE)
+            {
+                throw new IOException ("\"" + fileName + "\" is damaged, the footer position is outside the file");
+            }
+
+            footer = new BlockReader (channel, footerPosition, length - END_SIZE - footerPosition);
+            rows = (int) footer.readFixed (4);
+            headerLength = footer.readFixed (8);
+            headerChecksum = (int) footer.readFixed (4);
+            header = new BlockReader (channel, 0, headerLength);
+            if ((int) header.readFixed (4) != MAGIC)
+            {
+                throw new IOException ("\"" + fileName + "\" is not a binary database file");
+            }
+            if (header.readFixed (2) > VERSION)
+            {
+                throw new IOException ("\"" + fileName + "\" was written by a newer version of the program");
+            }
+            columns = (int) header.readFixed (2);
+
+            String[] titles = new String [columns];
+            byte[] encodings = new byte [columns];
+            ColumnReader[] readers = new ColumnReader [columns];
+            int[] checksums = new int [columns];
+
+            for (int c = 0 ; c < columns ; c++) // The schema
+            {
+                titles [c] = header.readString ();
+                encodings [c] = (byte) header.readByte ();
+            }
+            header.finish (headerChecksum, "header");
+            for (int c = 0 ; c < columns ; c++) // Every column is read through its own reader, so the entries can be put together row by row
+            {
+                long position = footer.readFixed (8), size = footer.readFixed (8);
+
+                checksums [c] = (int) footer.readFixed (4);
+                readers [c] = new ColumnReader (new BlockReader (channel, position, size), encodings [c]);
+            }
+            footer.finish (footerChecksum, "footer");
+
+            if (table == null)
+            {
+                table = new Table (titles);
+            }
+            else if (table.columnCount () != columns)
+            {
+                throw new IOException ("\"" + fileName + "\" has " + columns + " categories, the table has " + table.columnCount ());
+            }
+            String[] entry = new String [columns];
+            boolean[] numeric = new boolean [columns];
+            double[] numbers = new double [columns];
+
+            for (int r = 0 ; r < rows ; r++) // The numbers come out of the file already parsed
+            {
+                for (int c = 0 ; c < columns ; c++)
+                {
+                    readers [c].next ();
+                    entry [c] = readers [c].value;
+                    numeric [c] = readers [c].numeric;
+                    numbers [c] = readers [c].number;
+                }
+                table.add (entry, numeric, numbers);
+            }
+            for (int c = 0 ; c < columns ; c++)
+            {
+                readers [c].block.finish (checksums [c], "column \"" + titles [c] + "\"");
+            }
+            return table;
+        }
+        finally
+        {
+            channel.close ();
+        }
+    }
+
+
+    // Writes a table in the binary layout
+    static void write (OutputStream out, Table table) throws IOException
+    {
+        write (out, table, 0, table.size ());
+    }
+
+
+    // Writes the entries from row id from up to (not including) row id to in the binary layout, as a file of their own
+    static void write (OutputStream out, Table table, int from, int to) throws IOException
+    {
+        BlockWriter writer = new BlockWriter (out);
+        int columns = table.columnCount ();
+        byte[] encodings = new byte [columns];
+        long[] positions = new long [columns + 1], lengths = new long [columns + 1]; // The header is stored as the last block
+        int[] checksums = new int [columns + 1];
+        long footerPosition;
+
+        for (int c = 0 ; c < columns ; c++)
+        {
+            encodings [c] = encoding (table, c, from, to);
+        }
+
+        writer.writeFixed (MAGIC, 4);
+        writer.writeFixed (VERSION, 2);
+        writer.writeFixed (columns, 2);
+        for (int c = 0 ; c < columns ; c++)
+        {
+            writer.writeString (table.title (c));
+            writer.writeByte (encodings [c]);
+        }
+        lengths [columns] = writer.position ();
+        checksums [columns] = writer.endBlock ();
+
+        for (int c = 0 ; c < columns ; c++)
+        {
+            positions [c] = writer.position ();
+            writeColumn (writer, table, c, from, to, encodings [c]);
+            lengths [c] = writer.position () - positions [c];
+            checksums [c] = writer.endBlock ();
+        }
+
+        footerPosition = writer.position ();
+        writer.writeFixed (to - from, 4);
+        writer.writeFixed (lengths [columns], 8);
+        writer.writeFixed (checksums [columns], 4);
+        for (int c = 0 ; c < columns ; c++)
+        {
+            writer.writeFixed (positions [c], 8);
+            writer.writeFixed (lengths [c], 8);
+            writer.writeFixed (checksums [c], 4);
+        }
+        writer.writeFixed (writer.endBlock (), 4);
+        writer.writeFixed (footerPosition, 8);
+        writer.endBlock ();
+    }
+
+
+    // Returns the number of decimal places of a value written as a plain decimal number that fits in a long, or -1 for any other value
+    private static int decimalPlaces (String value)
+    {
+        int i = 0, digits = 0, places = -1; // places stays -1 until the decimal point is found
+        boolean zero = true; // True while every digit is 0
+
+        if (value == null || value.length () == 0)
+        {
+            return -1;
+        }
+        if (value.charAt (0) == '-')
+        {
+            i++;
+        }
+        if (i + 1 < value.length () && value.charAt (i) == '0' && value.charAt (i + 1) != '.') // Leading zeros would be lost
+        {
+            return -1;
+        }
+        for ( ; i < value.length () ; i++)
+        {
+            char c = value.charAt (i);
+
+            if (c == '.' && places < 0 && digits > 0)
+            {
+                places = 0;
+            }
+            else if (c >= '0' && c <= '9' && ++digits <= MAX_DIGITS)
+            {
+                zero = zero && c == '0';
+                if (places >= 0)
+                {
+                    places++;
+                }
+            }
+            else
+            {
+                return -1;
+            }
+        }
+        if (digits == 0 || places == 0 || (zero && value.charAt (0) == '-')) // A number has to have digits on both sides of the point, and -0 would lose its sign
+        {
+            return -1;
+        }
+        return Math.max (places, 0);
+    }
+
+
+    // Writes a whole number and a count of decimal places back as the text of the decimal number
+    private static String decimalText (long unscaled, int places)
+    {
+        StringBuilder text = new StringBuilder (Long.toString (Math.abs (unscaled)));
+
+        while (text.length () <= places) // Puts back the zeros between the decimal point and the first digit
+        {
+            text.insert (0, '0');
+        }
+        if (places > 0)
+        {
+            text.insert (text.length () - places, '.');
+        }
+        if (unscaled < 0)
+        {
+            text.insert (0, '-');
+        }
+        return text.toString ();
+    }
+
+
+    // Returns the distinct values of a category in rows from to to, numbered in the order they first appear, or null if there are more than the limit
+    private static LinkedHashMap<String, Integer> dictionary (Table table, int column, int from, int to, int limit)
+    {
+        LinkedHashMap<String, Integer> codes = new LinkedHashMap<String, Integer> ();
+
+        for (int row = from ; row < to ; row++)
+        {
+            String value = table.get (column, row);
+
+            if (value != null && !codes.containsKey (value))
+            {
+                if (codes.size () == limit)
+                {
+                    return null;
+                }
+                codes.put (value, codes.size ());
+            }
+        }
+        return codes;
+    }
+
+
+    // Chooses the smallest encoding that gives back every value of a category in rows from to to exactly as it was
+    private static byte encoding (Table table, int column, int from, int to)
+    {
+        int places = 0; // The most decimal places of any value, -1 once a value is not a plain decimal number
+
+        for (int row = from ; row < to && places >= 0 ; row++)
+        {
+            int valuePlaces = decimalPlaces (table.get (column, row));
+
+            places = (valuePlaces < 0) ? -1 : Math.max (places, valuePlaces);
+        }
+
+        if (places == 0)
+        {
+            return LONGS;
+        }
+        if (places > 0)
+        {
+            return DECIMALS;
+        }
+        return (dictionary (table, column, from, to, Math.min ((to - from) / 2, DICTIONARY_SIZE)) != null) ? DICTIONARY : PLAIN; // A code is only worth it when values repeat
+    }
+
+
+    // Returns the digits of a plain decimal number as a whole number, leaving out the decimal point
+    private static long unscaled (String value)
+    {
+        long unscaled = 0;
+
+        for (int i = 0 ; i < value.length () ; i++)
+        {
+            if (value.charAt (i) != '.' && value.charAt (i) != '-')
+            {
+                unscaled = unscaled * 10 + (value.charAt (i) - '0');
+            }
+        }
+        return (value.charAt (0) == '-') ? -unscaled : unscaled;
+    }
+
+
+    // Writes the values of a category in rows from to to in an encoding
+    private static void writeColumn (BlockWriter writer, Table table, int column, int from, int to, byte encoding) throws IOException
+    {
+        LinkedHashMap<String, Integer> codes = null;
+
+        if (encoding == DICTIONARY)
+        {
+            codes = dictionary (table, column, from, to, Integer.MAX_VALUE);
+            writer.writeLong (codes.size ());
+            for (String value : codes.keySet ())
+            {
+                writer.writeString (value);
+            }
+        }
+
+        for (int row = from ; row < to ; row++)
+        {
+            String value = table.get (column, row);
+            long number;
+
+            switch (encoding)
+            {
+                case LONGS:
+                    number = unscaled (value);
+                    writer.writeLong ((number << 1) ^ (number >> 63)); // Zig-zag encoding keeps small negative numbers short
+                    break;
+                case DECIMALS:
+                    number = unscaled (value);
+                    writer.writeLong ((number << 1) ^ (number >> 63));
+                    writer.writeLong (decimalPlaces (value));
+                    break;
+                case DICTIONARY:
+                    writer.writeLong ((value == null) ? 0 : codes.get (value) + 1); // 0 is kept for a missing value
+                    break;
+                default:
+                    writer.writeString (value);
+            }
+        }
+    }
+
+
+    // Reads the bytes of one block of a file and checks them against their CRC32
+    private static class BlockReader
+    {
+        private final FileChannel channel; // The file being read, shared by the readers of every block
+        private final ByteBuffer buffer = ByteBuffer.allocate (BUFFER_SIZE); // The bytes read from the file that were not used yet
+        private final CRC32 crc = new CRC32 (); // The checksum of the bytes read so far
+        private long position; // The position in the file of the next bytes to read into the buffer
+        private final long end; // The position in the file where the block ends
+
+
+        BlockReader (FileChannel channel, long position, long length) throws IOException
+        {
+            if (position < 0 || length < 0 || position + length > channel.size ())
+            {
+                throw new IOException ("The binary database file is damaged, a block is outside the file");
+            }
+            this.channel = channel;
+            this.position = position;
+            end = position + length;
+            buffer.limit (0);
+        }
+
+
+        // Checks that the whole block was read and that its bytes match the checksum
+        void finish (int checksum, String name) throws IOException
+        {
+            if (buffer.hasRemaining () || position != end)
+            {
+                throw new IOException ("The binary database file is damaged, the " + name + " has bytes that were not read");
+            }
+            if ((int) crc.getValue () != checksum)
+            {
+                throw new IOException ("The binary database file is damaged, the checksum of the " + name + " does not match");
+            }
+        }
+
+
+        int readByte () throws IOException
+        {
+            if (!buffer.hasRemaining ())
+            {
+                fill ();
+            }
+            return buffer.get () & 0xff;
+        }
+
+
+        // Reads a number stored in a fixed number of bytes, most significant byte first
+        long readFixed (int bytes) throws IOException
+        {
+            long value = 0;
+
+            for (int i = 0 ; i < bytes ; i++)
+            {
+                value = (value << 8) | readByte ();
+            }
+            return value;
+        }
+
+
+        // Reads a variable length number, 7 bits in each byte with the high bit set on every byte but the last
+        long readLong () throws IOException
+        {
+            long value = 0;
+
+            for (int shift = 0 ; shift < 64 ; shift += 7)
+            {
+                int b = readByte ();
+
+                value |= (long) (b & 0x7f) << shift;
+                if (b < 0x80)
+                {
+                    return value;
+                }
+            }
+            throw new IOException ("The binary database file is damaged, a number is too long");
+        }
+
+
+        // Reads a String stored as its length plus one (0 for a missing value) and its UTF-8 bytes
+        String readString () throws IOException
+        {
+            long length = readLong ();
+            byte[] bytes;
+
+            if (length == 0)
+            {
+                return null;
+            }
+            if (length < 0 || length - 1 > end - position + buffer.remaining ())
+            {
+                throw new IOException ("The binary database file is damaged, a value is longer than its block");
+            }
+            bytes = new byte [(int) length - 1];
+            for (int i = 0 ; i < bytes.length ; i++)
+            {
+                bytes [i] = (byte) readByte ();
+            }
+            return new String (bytes, StandardCharsets.UTF_8);
+        }
+
+
+        // Reads the next bytes of the block into the buffer
+        private void fill () throws IOException
+        {
+            if (position >= end)
+            {
+                throw new EOFException ("The binary database file is damaged, a block ends too early");
+            }
+            buffer.clear ();
+            buffer.limit ((int) Math.min (BUFFER_SIZE, end - position));
+            while (buffer.hasRemaining ())
+            {
+                if (channel.read (buffer, position + buffer.position ()) < 0)
+                {
+                    throw new EOFException ("The binary database file ends too early");
+                }
+            }
+            crc.update (buffer.array (), 0, buffer.limit ());
+            position += buffer.limit ();
+            buffer.flip ();
+        }
+    }
+
+
+    // Reads the values of one category and the numbers they hold
+    private static class ColumnReader
+    {
+        final BlockReader block; // The block of the file that holds the category
+        private final byte encoding; // The encoding of the category
+        private String[] dictionary; // The distinct values of a DICTIONARY category
+        private boolean[] dictionaryNumeric; // True for the distinct values that are numbers
+        private double[] dictionaryNumbers; // The number of each distinct value
+        String value; // The value that was read last
+        boolean numeric; // True if the value that was read last is a number
+        double number; // The number of the value that was read last
+
+
+        // Starts reading a category, the dictionary is read first and every distinct value is checked for a number only once
+        ColumnReader (BlockReader block, byte encoding) throws IOException
+        {
+            this.block = block;
+            this.encoding = encoding;
+            if (encoding == DICTIONARY)
+            {
+                dictionary = new String [(int) Math.min (block.readLong (), DICTIONARY_SIZE)];
+                dictionaryNumeric = new boolean [dictionary.length];
+                dictionaryNumbers = new double [dictionary.length];
+                for (int i = 0 ; i < dictionary.length ; i++)
+                {
+                    dictionary [i] = block.readString ();
+                    dictionaryNumeric [i] = Table.isNumber (dictionary [i]);
+                    dictionaryNumbers [i] = dictionaryNumeric [i] ? Double.parseDouble (dictionary [i]) : 0;
+                }
+            }
+            else if (encoding < PLAIN || encoding > DECIMALS)
+            {
+                throw new IOException ("Unknown encoding " + encoding + " in the binary database file");
+            }
+        }
+
+
+        // Reads the next value of the category
+        void next () throws IOException
+        {
+            long code;
+            int places;
+
+            switch (encoding)
+            {
+                case LONGS:
+                    code = block.readLong ();
+                    code = (code >>> 1) ^ -(code & 1); // Undoes the zig-zag encoding
+                    value = Long.toString (code);
+                    numeric = true;
+                    number = code;
+                    break;
+                case DECIMALS:
+                    code = block.readLong ();
+                    code = (code >>> 1) ^ -(code & 1);
+                    places = (int) block.readLong ();
+                    if (places < 0 || places > MAX_DIGITS)
+                    {
+                        throw new IOException ("The binary database file is damaged, a number has too many decimal places");
+                    }
+                    value = decimalText (code, places);
+                    numeric = true;
+                    if (Math.abs (code) < (1L << 53) && places < POWERS_OF_TEN.length) // Both are exact doubles, so the division rounds the same way parsing does
+                    {
+                        number = code / POWERS_OF_TEN [places];
+                    }
+                    else
+                    {
+                        number = Double.parseDouble (value);
+                    }
+                    break;
+                case DICTIONARY:
+                    code = block.readLong ();
+                    if (code > dictionary.length)
+                    {
+                        throw new IOException ("The binary database file is damaged, a code is outside the dictionary");
+                    }
+                    value = (code == 0) ? null : dictionary [(int) code - 1];
+                    numeric = (code != 0) && dictionaryNumeric [(int) code - 1];
+                    number = numeric ? dictionaryNumbers [(int) code - 1] : 0;
+                    break;
+                default:
+                    value = block.readString ();
+                    numeric = Table.isNumber (value);
+                    number = numeric ? Double.parseDouble (value) : 0;
+            }
+        }
+    }
+
+
+    // Writes the bytes of the file block by block and keeps the CRC32 of the current block
+    private static class BlockWriter
+    {
+        private final OutputStream out; // Where the bytes are written
+        private final byte[] buffer = new byte [BUFFER_SIZE]; // The bytes that were not written yet
+        private int count = 0; // The number of bytes in the buffer
+        private final CRC32 crc = new CRC32 (); // The checksum of the current block, not counting the buffer
+        private long written = 0; // The number of bytes written to out
+
+
+        BlockWriter (OutputStream out)
+        {
+            this.out = out;
+        }
+
+
+        // Writes the buffer and returns the checksum of the block that ends here, the next block starts with a new checksum
+        int endBlock () throws IOException
+        {
+            int checksum;
+
+            flush ();
+            checksum = (int) crc.getValue ();
+            crc.reset ();
+            return checksum;
+        }
+
+
+        // Returns the position in the file of the next byte
+        long position ()
+        {
+            return written + count;
+        }
+
+
+        void writeByte (int value) throws IOException
+        {
+            if (count == BUFFER_SIZE)
+            {
+                flush ();
+            }
+            buffer [count++] = (byte) value;
+        }
+
+
+        // Writes a number in a fixed number of bytes, most significant byte first
+        void writeFixed (long value, int bytes) throws IOException
+        {
+            for (int i = bytes - 1 ; i >= 0 ; i--)
+            {
+                writeByte ((int) (value >>> (i * 8)));
+            }
+        }
+
+
+        // Writes a variable length number, 7 bits in each byte with the high bit set on every byte but the last
+        void writeLong (long value) throws IOException
+        {
+            while ((value & ~0x7fL) != 0)
+            {
+                writeByte ((int) (value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            writeByte ((int) value);
+        }
+
+
+        // Writes a String as its length plus one (0 for a missing value) and its UTF-8 bytes
+        void writeString (String value) throws IOException
+        {
+            byte[] bytes;
+
+            if (value == null)
+            {
+                writeLong (0);
+                return;
+            }
+            bytes = value.getBytes (StandardCharsets.UTF_8);
+            writeLong (bytes.length + 1);
+            for (int i = 0 ; i < bytes.length ; i++)
+            {
+                writeByte (bytes [i]);
+            }
+        }
+
+
+        // Writes the buffered bytes and adds them to the checksum
+        private void flush () throws IOException
+        {
+            crc.update (buffer, 0, count);
+            out.write (buffer, 0, count);
+            written += count;
+            count = 0;
+        }
+    }
+}
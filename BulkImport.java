@@ -0,0 +1,245 @@
+/*--------------------------------------------------------------------------------------*/
+/*                                                                                      */
+/*  BulkImport.java - Adds the entries of a CSV or TSV file to a database in one pass,  */
+/*                    instead of typing them in one value at a time.                    */
+/*                                                                                      */
+/*                    The file is read in blocks of 64 KB and parsed as it is read, so  */
+/*                    the memory used does not grow with the size of the file. Each     */
+/*                    line is one entry with one value for every category. Files that   */
+/*                    end in .tsv or .tab are split at tabs, other files at commas.     */
+/*                    In a CSV file a value can be written in double quotes to hold     */
+/*                    commas, and "" is a quote inside quotes.                          */
+/*                                                                                      */
+/*                    Values follow the same rules as the entry menu: a blank value is  */
+/*                    set to N/A and a value of 21 characters or more is refused. A     */
+/*                    line with a value that is refused, with the wrong number of       */
+/*                    values or with a line break inside quotes is skipped and listed   */
+/*                    as rejected, the rest of the file is still imported.              */
+/*                                                                                      */
+/*--------------------------------------------------------------------------------------*/
+
+import java.io.*;
+import java.util.*;
+
+class BulkImport implements Table.RowSource
+{
+    static final int BUFFER_SIZE = 1 << 16; // The file is read in blocks of 64 KB
+    static final int MAX_LISTED = 100; // Only the first rejected lines are listed, the rest are only counted
+
+    private final Reader reader; // Reads the characters of the file
+    private final char delimiter; // The character between two values of a line
+    private final boolean quotes; // True if values can be written in double quotes (CSV but not TSV)
+    private final int columns; // The number of values each line must have
+    private final char[] buffer = new char [BUFFER_SIZE]; // The block of the file that is being parsed
+    private int position = 0; // The next character of the buffer to parse
+    private int limit = 0; // The number of characters in the buffer
+    private int lineNumber = 0; // The line of the file that is being parsed
+    private final ArrayList<String> values = new ArrayList<String> (); // The values of the line that is being parsed
+    private final StringBuilder value = new StringBuilder (); // The value that is being parsed
+    private final List<String> rejected = new ArrayList<String> (); // A message for each of the first rejected lines
+    private int rejectedCount = 0; // The number of rejected lines
+    private int imported = 0; // The number of entries that were added
+
+
+    // Opens a CSV or TSV file for a table with the given number of categories
+    BulkImport (String fileName, int columns) throws IOException
+    {
+        String lower = fileName.toLowerCase ();
+
+        this.reader = new InputStreamReader (new FileInputStream (fileName)); // The same charset FileReader uses for .ssf files
+        this.delimiter = (lower.endsWith (".tsv") || lower.endsWith (".tab")) ? '\t' : ',';
+        this.quotes = (delimiter == ',');
+        this.columns = columns;
+        if (peek () == '\uFEFF') // Skips the byte order mark that some spreadsheet programs write
+        {
+            position++;
+        }
+    }
+
+
+    // Adds every line of a CSV or TSV file to a table, the first line is skipped if it holds the category titles
+    // Returns the import so the number of entries and the rejected lines can be read
+    static BulkImport addFile (String fileName, Table table, boolean header) throws IOException
+    {
+        BulkImport source = new BulkImport (fileName, table.columnCount ());
+
+        try
+        {
+            if (header)
+            {
+                source.readLine ();
+            }
+            source.imported = table.addAll (source);
+        }
+        finally
+        {
+            source.reader.close ();
+        }
+        return source;
+    }
+
+
+    // Returns the number of entries that were added
+    int imported ()
+    {
+        return imported;
+    }
+
+
+    // Returns the next entry of the file with the values checked, or null at the end of the file
+    public String[] next () throws IOException
+    {
+        while (readLine ())
+        {
+            String error = check ();
+
+            if (error == null)
+            {
+                return values.toArray (new String [columns]);
+            }
+            if (rejected.size () < MAX_LISTED)
+            {
+                rejected.add ("Line " + lineNumber + ": " + error);
+            }
+            rejectedCount++;
+        }
+        return null;
+    }
+
+
+    // Returns a message for each of the first rejected lines
+    List<String> rejected ()
+    {
+        return rejected;
+    }
+
+
+    // Returns the number of lines that were rejected
+    int rejectedCount ()
+    {
+        return rejectedCount;
+    }
+
+
+    // Checks the values of the line that was read and sets blank values to N/A, returns why the line is refused or null if it is not
+    private String check ()
+    {
+        if (values.size () != columns)
+        {
+            return "has " + values.size () + " values, the database has " + columns + " categories";
+        }
+        for (int i = 0 ; i < columns ; i++)
+        {
+            String v = values.get (i);
+
+            if (v.indexOf ('\n') >= 0 || v.indexOf ('\r') >= 0) // Each value is one line of the .ssf file
+            {
+                return "value " + (i + 1) + " holds a line break";
+            }
+            try
+            {
+                values.set (i, Database.normalizeValue (v));
+            }
+            catch (IllegalArgumentException e)
+            {
+                return e.getMessage ();
+            }
+        }
+        return null;
+    }
+
+
+    // Returns the next character without using it up, or -1 at the end of the file
+    private int peek () throws IOException
+    {
+        if (position == limit)
+        {
+            limit = reader.read (buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0)
+            {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer [position];
+    }
+
+
+    // Returns the next character, or -1 at the end of the file
+    private int read () throws IOException
+    {
+        int c = peek ();
+
+        if (c >= 0)
+        {
+            position++;
+        }
+        return c;
+    }
+
+
+    // Reads the values of the next line that is not blank, returns false at the end of the file
+    private boolean readLine () throws IOException
+    {
+        int c;
+
+        do
+        {
+            values.clear ();
+            if (peek () < 0)
+            {
+                return false;
+            }
+            lineNumber++;
+            do // Reads one value each time around, c is the character that ended the value
+            {
+                value.setLength (0);
+                c = read ();
+                if (quotes && c == '"')
+                {
+                    c = readQuoted ();
+                }
+                while (c >= 0 && c != delimiter && c != '\n' && c != '\r')
+                {
+                    value.append ((char) c);
+                    c = read ();
+                }
+                values.add (value.toString ());
+            }
+            while (c == delimiter);
+
+            if (c == '\r' && peek () == '\n') // A \r\n pair counts as one line break
+            {
+                position++;
+            }
+        }
+        while (values.size () == 1 && values.get (0).length () == 0); // Blank lines are skipped
+        return true;
+    }
+
+
+    // Reads a value written in double quotes, after its first quote, and returns the character after the closing quote
+    private int readQuoted () throws IOException
+    {
+        int c;
+
+        while ((c = read ()) >= 0)
+        {
+            if (c == '"')
+            {
+                if (peek () != '"') // A single quote closes the value
+                {
+                    return read ();
+                }
+                position++; // Two quotes stand for one quote inside the value
+            }
+            else if (c == '\n' || (c == '\r' && peek () != '\n'))
+            {
+                lineNumber++; // The value goes on over the next line of the file, check refuses it
+            }
+            value.append ((char) c);
+        }
+        return c;
+    }
+}
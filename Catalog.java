@@ -0,0 +1,604 @@
+/*--------------------------------------------------------------------------------------*/
+/*                                                                                      */
+/*  Catalog.java - Keeps the names, password hashes and details of every database in    */
+/*                 memory, so logging in and listing the databases never read a file.   */
+/*                                                                                      */
+/*                 The databases are held in a hash map by name (ignoring case), with   */
+/*                 the salted hash of the password (see Credential) and, once the       */
+/*                 database was saved, its category titles, number of entries and the   */
+/*                 time it was saved. The map is loaded once from namespasswords.ssf    */
+/*                 and its log, namespasswords.log.                                     */
+/*                                                                                      */
+/*                 namespasswords.ssf keeps the layout it always had (name and password */
+/*                 lines, the password line now holds the hash). Each change is         */
+/*                 appended to the log as one small record instead of rewriting the     */
+/*                 whole file, and once the log holds many more records than there are  */
+/*                 databases, it is folded back into namespasswords.ssf and started     */
+/*                 again (compact).                                                     */
+/*                                                                                      */
+/*                 Log layout: a header (magic number, version, and the size and        */
+/*                 modified time of the namespasswords.ssf it applies to), then records */
+/*                 of [length][CRC32][payload] like WriteAheadLog (see LogRecord). A    */
+/*                 log whose header does not match namespasswords.ssf is ignored, and a */
+/*                 record that was only partly written is dropped along with anything   */
+/*                 after it.                                                            */
+/*                                                                                      */
+/*                 Other programs may change the catalog too. Before each use, the size */
+/*                 and modified time of both files are checked (no file is read), and   */
+/*                 only records added since the last use are read. Changes hold the     */
+/*                 write lock of namespasswords.ssf (see DatabaseLock).                 */
+/*                                                                                      */
+/*--------------------------------------------------------------------------------------*/
+
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+class Catalog
+{
+    static final String FILE_NAME = "namespasswords.ssf"; // The names and password hashes of the databases
+    static final String LOG_NAME = "namespasswords.log"; // The changes made since namespasswords.ssf was written
+    static final int MAGIC = 0x53534643; // "SSFC", marks the start of a log file
+    static final int VERSION = 1; // The version of the log file layout
+    static final int HEADER_SIZE = 4 + 4 + 8 + 8; // Magic number, version, namespasswords.ssf size and modified time
+    static final int COMPACT_RECORDS = 64; // The log is folded back once it holds this many records more than twice the databases
+
+    static final byte ADD = 1; // Record of a database added
+    static final byte REMOVE = 2; // Record of a database removed
+    static final byte RENAME = 3; // Record of a database renamed
+    static final byte PASSWORD = 4; // Record of a password changed, or hashed again
+    static final byte SAVED = 5; // Record of the titles, entry count and time of a database that was saved
+
+    private static final Map<String, Entry> entries = new LinkedHashMap<String, Entry> (); // The databases by lowercase name, in the order they were added
+    private static long fileSize = -1; // The size of namespasswords.ssf when it was read, -1 if it was not read yet
+    private static long fileModified = -1; // The modified time of namespasswords.ssf when it was read
+    private static long logSize = 0; // The bytes of the log that were read, 0 if the log does not belong to namespasswords.ssf
+    private static int records = 0; // The number of records in the log
+
+
+    // A database in the catalog, entries never change, a change puts a new entry in the map
+    static class Entry
+    {
+        final String name; // The name of the database as it was entered
+        final String credential; // The salted hash of the password (see Credential), or the password of a database from before hashing
+        final String[] titles; // The category titles when the database was last saved, null if not known
+        final int rows; // The number of entries when the database was last saved, -1 if not known
+        final long modified; // When the database was last saved in milliseconds since 1970, 0 if not known
+
+
+        Entry (String name, String credential, String[] titles, int rows, long modified)
+        {
+            this.name = name;
+            this.credential = credential;
+            this.titles = titles;
+            this.rows = rows;
+            this.modified = modified;
+        }
+    }
+
+
+    // Adds a database, the caller has checked that the name is not taken and written its file
+    // titles is null if the categories are not known yet
+    static void add (String name, String password, String[] titles, int rows) throws IOException
+    {
+        String credential = Credential.hash (password); // Hashed before the lock is taken, so other sessions do not wait for it
+        DatabaseLock lock = DatabaseLock.write (FILE_NAME);
+
+        try
+        {
+            synchronized (Catalog.class)
+            {
+                ByteArrayOutputStream log = new ByteArrayOutputStream (); // Both records are appended with one write
+                LogRecord record = LogRecord.start (ADD);
+
+                refresh ();
+                if (entries.containsKey (key (name)))
+                {
+                    throw new IOException ("A database with the name \"" + name + "\" already exists");
+                }
+                entries.put (key (name), new Entry (name, credential, titles, rows, (titles == null) ? 0 : System.currentTimeMillis ()));
+                record.writeUTF (name);
+                record.writeUTF (credential);
+                addRecord (log, record);
+                if (titles != null)
+                {
+                    addRecord (log, savedRecord (entries.get (key (name))));
+                }
+                append (log.toByteArray ());
+            }
+        }
+        finally
+        {
+            lock.release ();
+        }
+    }
+
+
+    // Returns true if a database with the name and password exists, the name has to match exactly like the login menu requires
+    // A password from before hashing, or a hash made with a lower cost, is replaced by a new hash once the password is known to be right
+    static boolean check (String name, String password) throws IOException
+    {
+        Entry entry = get (name);
+
+        if (entry == null || !entry.name.equals (name) || !Credential.verify (password, entry.credential))
+        {
+            return false;
+        }
+        if (Credential.needsRehash (entry.credential))
+        {
+            setPassword (name, password);
+        }
+        return true;
+    }
+
+
+    // Returns true if a database with the name exists, ignoring case
+    static boolean contains (String name) throws IOException
+    {
+        return get (name) != null;
+    }
+
+
+    // Returns a database by its name (ignoring case), null if there is none
+    static Entry get (String name) throws IOException
+    {
+        use ();
+        synchronized (Catalog.class)
+        {
+            return entries.get (key (name));
+        }
+    }
+
+
+    // Returns every database in the order they were added
+    static List<Entry> list () throws IOException
+    {
+        use ();
+        synchronized (Catalog.class)
+        {
+            return new ArrayList<Entry> (entries.values ());
+        }
+    }
+
+
+    // Removes a database, nothing happens if there is none with the name
+    static void remove (String name) throws IOException
+    {
+        DatabaseLock lock = DatabaseLock.write (FILE_NAME);
+
+        try
+        {
+            synchronized (Catalog.class)
+            {
+                LogRecord record = LogRecord.start (REMOVE);
+
+                refresh ();
+                if (entries.remove (key (name)) != null)
+                {
+                    record.writeUTF (name);
+                    append (record);
+                }
+            }
+        }
+        finally
+        {
+            lock.release ();
+        }
+    }
+
+
+    // Gives a database a new name, throws if another database already has the new name
+    static void rename (String name, String newName) throws IOException
+    {
+        DatabaseLock lock = DatabaseLock.write (FILE_NAME);
+
+        try
+        {
+            synchronized (Catalog.class)
+            {
+                Entry entry;
+                LogRecord record;
+
+                refresh ();
+                entry = entries.get (key (name));
+                if (entry == null)
+                {
+                    throw new IOException ("There is no database named \"" + name + "\"");
+                }
+                if (!key (name).equals (key (newName)) && entries.containsKey (key (newName)))
+                {
+                    throw new IOException ("A database with the name \"" + newName + "\" already exists");
+                }
+                replace (name, new Entry (newName, entry.credential, entry.titles, entry.rows, entry.modified));
+                record = LogRecord.start (RENAME);
+                record.writeUTF (name);
+                record.writeUTF (newName);
+                append (record);
+            }
+        }
+        finally
+        {
+            lock.release ();
+        }
+    }
+
+
+    // Records the category titles and number of entries of a database that was just saved
+    // A database file that is not in the catalog (for example a file that was copied into the folder) is skipped
+    static void saved (String name, String[] titles, int rows) throws IOException
+    {
+        DatabaseLock lock = DatabaseLock.write (FILE_NAME);
+
+        try
+        {
+            synchronized (Catalog.class)
+            {
+                Entry entry;
+
+                refresh ();
+                entry = entries.get (key (name));
+                if (entry != null)
+                {
+                    entry = new Entry (entry.name, entry.credential, titles, rows, System.currentTimeMillis ());
+                    entries.put (key (name), entry);
+                    append (savedRecord (entry));
+                }
+            }
+        }
+        finally
+        {
+            lock.release ();
+        }
+    }
+
+
+    // Changes the password of a database
+    static void setPassword (String name, String password) throws IOException
+    {
+        String credential = Credential.hash (password); // Hashed before the lock is taken, so other sessions do not wait for it
+        DatabaseLock lock = DatabaseLock.write (FILE_NAME);
+
+        try
+        {
+            synchronized (Catalog.class)
+            {
+                Entry entry;
+                LogRecord record;
+
+                refresh ();
+                entry = entries.get (key (name));
+                if (entry == null)
+                {
+                    throw new IOException ("There is no database named \"" + name + "\"");
+                }
+                entries.put (key (name), new Entry (entry.name, credential, entry.titles, entry.rows, entry.modified));
+                record = LogRecord.start (PASSWORD);
+                record.writeUTF (name);
+                record.writeUTF (credential);
+                append (record);
+            }
+        }
+        finally
+        {
+            lock.release ();
+        }
+    }
+
+
+    // Adds a finished record to a buffer of records and counts it
+    private static void addRecord (ByteArrayOutputStream log, LogRecord record) throws IOException
+    {
+        record.frame (log);
+        records++;
+    }
+
+
+    // Appends one record to the log
+    private static void append (LogRecord record) throws IOException
+    {
+        ByteArrayOutputStream log = new ByteArrayOutputStream ();
+
+        addRecord (log, record);
+        append (log.toByteArray ());
+    }
+
+
+    // Appends records to the log and syncs it, the map must already hold the change
+    // The whole catalog is written instead if the log does not belong to namespasswords.ssf or has grown too long
+    private static void append (byte[] bytes) throws IOException
+    {
+        try
+        {
+            if (logSize == 0 || records > 2 * entries.size () + COMPACT_RECORDS)
+            {
+                compact ();
+                return;
+            }
+
+            RandomAccessFile log = new RandomAccessFile (LOG_NAME, "rw");
+
+            try
+            {
+                log.setLength (logSize); // Cuts off a record that was only partly written when a program stopped
+                log.seek (logSize);
+                log.write (bytes);
+                log.getFD ().sync ();
+            }
+            finally
+            {
+                log.close ();
+            }
+            logSize += bytes.length;
+        }
+        catch (IOException e)
+        {
+            fileSize = -1; // The files are read again on the next use, so the map holds what is on disk
+            throw e;
+        }
+    }
+
+
+    // Applies one record of the log to the map
+    private static void apply (DataInputStream record) throws IOException
+    {
+        byte type = record.readByte ();
+        String name;
+        Entry entry;
+
+        switch (type)
+        {
+            case ADD:
+                name = record.readUTF ();
+                entries.put (key (name), new Entry (name, record.readUTF (), null, -1, 0));
+                break;
+            case REMOVE:
+                entries.remove (key (record.readUTF ()));
+                break;
+            case RENAME:
+                entry = entries.get (key (record.readUTF ()));
+                name = record.readUTF ();
+                if (entry != null)
+                {
+                    replace (entry.name, new Entry (name, entry.credential, entry.titles, entry.rows, entry.modified));
+                }
+                break;
+            case PASSWORD:
+                entry = entries.get (key (record.readUTF ()));
+                if (entry != null)
+                {
+                    entries.put (key (entry.name), new Entry (entry.name, record.readUTF (), entry.titles, entry.rows, entry.modified));
+                }
+                break;
+            case SAVED:
+                entry = entries.get (key (record.readUTF ()));
+                int rows = record.readInt ();
+                long modified = record.readLong ();
+                String[] titles = new String [record.readInt ()];
+                for (int c = 0 ; c < titles.length ; c++)
+                {
+                    titles [c] = record.readUTF ();
+                }
+                if (entry != null)
+                {
+                    entries.put (key (entry.name), new Entry (entry.name, entry.credential, titles, rows, modified));
+                }
+                break;
+            default:
+                throw new IOException ("Unknown record type " + type + " in " + LOG_NAME);
+        }
+    }
+
+
+    // Returns true if namespasswords.ssf or the log changed since they were read, only their sizes and times are checked
+    private static boolean changed () throws IOException
+    {
+        File file = new File (FILE_NAME);
+
+        return file.length () != fileSize || modifiedTime (file) != fileModified || new File (LOG_NAME).length () != logSize;
+    }
+
+
+    // Writes every database into namespasswords.ssf and starts a new log that only holds the details of saved databases
+    private static void compact () throws IOException
+    {
+        List<Entry> list = new ArrayList<Entry> (entries.values ());
+        ByteArrayOutputStream log = new ByteArrayOutputStream ();
+        DataOutputStream header = new DataOutputStream (log);
+        File file = new File (FILE_NAME);
+
+        Persistence.writeFile (FILE_NAME, writer -> { // A name line followed by its credential line for each database
+            for (Entry entry : list)
+            {
+                Database.writeLine (writer, entry.name);
+                Database.writeLine (writer, entry.credential);
+            }
+        });
+        header.writeInt (MAGIC);
+        header.writeInt (VERSION);
+        header.writeLong (file.length ());
+        header.writeLong (modifiedTime (file)); // Ties the log to this version of namespasswords.ssf
+        records = 0;
+        for (Entry entry : list)
+        {
+            if (entry.titles != null)
+            {
+                addRecord (log, savedRecord (entry));
+            }
+        }
+        Persistence.writeBinaryFile (LOG_NAME, out -> log.writeTo (out));
+        fileSize = file.length ();
+        fileModified = modifiedTime (file);
+        logSize = log.size ();
+    }
+
+
+    // Returns the key of a database name in the map, names that only differ in case or surrounding spaces are the same database
+    private static String key (String name)
+    {
+        return name.trim ().toLowerCase ();
+    }
+
+
+    // Reads namespasswords.ssf and its log into the map
+    private static void load () throws IOException
+    {
+        File file = new File (FILE_NAME);
+        String name;
+
+        entries.clear ();
+        records = 0;
+        logSize = 0;
+        fileSize = file.length ();
+        fileModified = modifiedTime (file);
+        if (file.exists ())
+        {
+            BufferedReader reader = new BufferedReader (new FileReader (file));
+
+            try
+            {
+                while ((name = reader.readLine ()) != null && !name.trim ().equals ("")) // Name and password lines until a blank line or the end
+                {
+                    entries.put (key (name), new Entry (name, reader.readLine (), null, -1, 0));
+                }
+            }
+            finally
+            {
+                reader.close ();
+            }
+        }
+        readLog ();
+    }
+
+
+    // Returns the modified time of a file in microseconds, 0 if it does not exist
+    private static long modifiedTime (File file) throws IOException
+    {
+        if (!file.exists ())
+        {
+            return 0;
+        }
+        return Files.readAttributes (file.toPath (), BasicFileAttributes.class).lastModifiedTime ().to (TimeUnit.MICROSECONDS);
+    }
+
+
+    // Reads the records of the log that were not read yet, the log is skipped if it does not belong to namespasswords.ssf
+    private static void readLog () throws IOException
+    {
+        File file = new File (LOG_NAME);
+        long size = file.length ();
+        long position = logSize; // Where the records that were not read yet start
+        DataInputStream in;
+
+        if (size < HEADER_SIZE)
+        {
+            return;
+        }
+        in = new DataInputStream (new BufferedInputStream (new FileInputStream (file)));
+        try
+        {
+            if (logSize == 0)
+            {
+                if (in.readInt () != MAGIC || in.readInt () != VERSION || in.readLong () != fileSize || in.readLong () != fileModified)
+                {
+                    return; // namespasswords.ssf was written after the log, so it already holds every change
+                }
+                position = HEADER_SIZE;
+            }
+            else
+            {
+                in.skipNBytes (logSize);
+            }
+            logSize = LogRecord.read (in, position, size, record ->
+            {
+                apply (record);
+                records++;
+            });
+        }
+        finally
+        {
+            in.close ();
+        }
+    }
+
+
+    // Reads what changed in namespasswords.ssf and the log since they were read, must be called holding a lock of namespasswords.ssf
+    private static void refresh () throws IOException
+    {
+        File file = new File (FILE_NAME);
+
+        if (file.length () != fileSize || modifiedTime (file) != fileModified || logSize == 0 || new File (LOG_NAME).length () < logSize)
+        {
+            load (); // The file was written again (or the log never matched it), so everything is read again
+        }
+        else if (new File (LOG_NAME).length () > logSize) // Only records were added since the log was read
+        {
+            readLog ();
+        }
+    }
+
+
+    // Puts an entry in the place of the database with the old name, so renaming keeps the order of the list
+    private static void replace (String oldName, Entry entry)
+    {
+        Map<String, Entry> copy = new LinkedHashMap<String, Entry> (entries);
+
+        entries.clear ();
+        for (Map.Entry<String, Entry> e : copy.entrySet ())
+        {
+            if (e.getKey ().equals (key (oldName)))
+            {
+                entries.put (key (entry.name), entry);
+            }
+            else
+            {
+                entries.put (e.getKey (), e.getValue ());
+            }
+        }
+    }
+
+
+    // Returns the record of the details of a saved database
+    private static LogRecord savedRecord (Entry entry) throws IOException
+    {
+        LogRecord record = LogRecord.start (SAVED);
+
+        record.writeUTF (entry.name);
+        record.writeInt (entry.rows);
+        record.writeLong (entry.modified);
+        record.writeInt (entry.titles.length);
+        for (int c = 0 ; c < entry.titles.length ; c++)
+        {
+            record.writeUTF (entry.titles [c]);
+        }
+        return record;
+    }
+
+
+    // Reads the files again if another program or session changed them, the map is up to date afterwards
+    private static void use () throws IOException
+    {
+        DatabaseLock lock;
+
+        synchronized (Catalog.class)
+        {
+            if (!changed ()) // The usual case, nothing is read and no lock is taken
+            {
+                return;
+            }
+        }
+        lock = DatabaseLock.read (FILE_NAME); // Nothing changes the files while they are read
+        try
+        {
+            synchronized (Catalog.class)
+            {
+                refresh ();
+            }
+        }
+        finally
+        {
+            lock.release ();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*--------------------------------------------------------------------------------------*/
+/*                                                                                      */
+/*  ColumnDictionary.java - The shared value table of a category that repeats a small   */
+/*                          set of values (like a handful of species or continent       */
+/*                          names). Each distinct value is stored once, with its parsed */
+/*                          number, and the rows of the category only hold its int      */
+/*                          code, so a repeated value costs 4 bytes instead of a String */
+/*                          and comparing two values is comparing two ints.             */
+/*                                                                                      */
+/*                          Codes are handed out in the order values first appear and   */
+/*                          are never reused, so a code stays valid while rows change.  */
+/*                                                                                      */
+/*                          Because values are only ever added, a snapshot of the table */
+/*                          keeps a view that shares the arrays and the map of codes    */
+/*                          and only sees the codes that existed when it was taken.     */
+/*                          The table keeps adding values to the arrays past the end of */
+/*                          the view (or to larger copies of them) while the view is    */
+/*                          read, and the map of codes is safe to read while it grows.  */
+/*                                                                                      */
+/*--------------------------------------------------------------------------------------*/
+
+import java.util.*;
+import java.util.concurrent.*;
+
+class ColumnDictionary
+{
+    private final ConcurrentHashMap<String, Integer> codes; // The code of every distinct value, shared with the views of snapshots
+    private String[] values = new String [16]; // The distinct values, values [code]
+    private boolean[] numeric = new boolean [16]; // True for the distinct values that are numbers
+    private double[] numbers = new double [16]; // The parsed number of each numeric value
+    private int size = 0; // The number of distinct values
+    private int nullCode = -1; // The code of a missing value, which the map of codes cannot hold
+    private final boolean view; // True for the view of a snapshot, which cannot add values
+
+
+    // Creates an empty dictionary
+    ColumnDictionary ()
+    {
+        codes = new ConcurrentHashMap<String, Integer> ();
+        view = false;
+    }
+
+
+    // Creates a view that sees the values a dictionary holds now
+    private ColumnDictionary (ColumnDictionary source)
+    {
+        codes = source.codes;
+        values = source.values;
+        numeric = source.numeric;
+        numbers = source.numbers;
+        size = source.size;
+        nullCode = source.nullCode;
+        view = true;
+    }
+
+
+    // Returns the code of a value, the value is added with its number if it is new
+    int add (String value, boolean isNumber, double number)
+    {
+        int code = code (value);
+
+        if (view)
+        {
+            throw new UnsupportedOperationException ("The dictionary of a snapshot cannot change");
+        }
+        if (code >= 0)
+        {
+            return code;
+        }
+        if (size == values.length)
+        {
+            values = Arrays.copyOf (values, size * 2);
+            numeric = Arrays.copyOf (numeric, size * 2);
+            numbers = Arrays.copyOf (numbers, size * 2);
+        }
+        values [size] = value;
+        numeric [size] = isNumber;
+        numbers [size] = number;
+        if (value == null)
+        {
+            nullCode = size;
+        }
+        else
+        {
+            codes.put (value, size);
+        }
+        return size++;
+    }
+
+
+    // Returns the code of a value, or -1 if no row ever held the value
+    int code (String value)
+    {
+        Integer code;
+
+        if (value == null)
+        {
+            return nullCode;
+        }
+        code = codes.get (value);
+        return (code == null || code >= size) ? -1 : code; // A view does not know the codes added after it was taken
+    }
+
+
+    // Returns true if the value of a code is a number
+    boolean isNumeric (int code)
+    {
+        return numeric [code];
+    }
+
+
+    // Marks the codes of the values that match a value ignoring case, the same values HashIndex would match
+    boolean[] matches (String value)
+    {
+        boolean[] matches = new boolean [size];
+        String folded = HashIndex.fold (value);
+
+        for (int code = 0 ; code < size ; code++)
+        {
+            matches [code] = values [code] != null && (values [code].length () == value.length ()) && HashIndex.fold (values [code]).equals (folded);
+        }
+        return matches;
+    }
+
+
+    // Returns the parsed number of the value of a code, or 0 if it is not a number
+    double number (int code)
+    {
+        return numbers [code];
+    }
+
+
+    // Returns the number of distinct values, including values that no row holds anymore
+    int size ()
+    {
+        return size;
+    }
+
+
+    // Returns a view of the values the dictionary holds now, used by a snapshot of the table
+    ColumnDictionary snapshot ()
+    {
+        return new ColumnDictionary (this);
+    }
+
+
+    // Returns the value of a code
+    String value (int code)
+    {
+        return values [code];
+    }
+}
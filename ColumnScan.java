@@ -0,0 +1,383 @@
+/*--------------------------------------------------------------------------------------*/
+/*                                                                                      */
+/*  ColumnScan.java - Scans one category of a Table at a time, reading the arrays of    */
+/*                    each Segment directly instead of asking for one cell at a time.   */
+/*                                                                                      */
+/*                    A scan produces a selection: a bitmap with one bit per row id     */
+/*                    (bit r % 64 of word r / 64), set for the entries that match.      */
+/*                    Selections of several conditions are combined with a bitwise      */
+/*                    AND, and aggregates read only the selected cells.                 */
+/*                                                                                      */
+/*                    Numbers are compared straight from the double array of each       */
+/*                    segment, 64 rows at a time into one word of the selection, and a  */
+/*                    category with a dictionary is matched by looking up each code in  */
+/*                    a table of the codes that match, so neither compares any text.    */
+/*                    The loops have no calls or branches on the values so the JIT can  */
+/*                    unroll and vectorize them. Only text comparisons on a category    */
+/*                    without a dictionary still look at the Strings.                   */
+/*                                                                                      */
+/*                    Cells still in a mapped file are decoded before a category is     */
+/*                    scanned, because decoding can change how the category is stored.  */
+/*                                                                                      */
+/*                    A table with at least Table.parallelThreshold entries is split    */
+/*                    into ranges of segments that are scanned at the same time on the  */
+/*                    fork-join pool. Each range writes only its own selection words,   */
+/*                    so the selection is the same as the one a single thread makes.    */
+/*                                                                                      */
+/*--------------------------------------------------------------------------------------*/
+
+import java.util.*;
+import java.util.concurrent.*;
+
+class ColumnScan
+{
+    static final int WORDS = Table.SEGMENT_SIZE >> 6; // The number of selection words that cover one segment
+
+
+    // Tests a single cell, used for the cells that are compared as text
+    interface CellTest
+    {
+        boolean matches (String value, boolean isNumber, double number);
+    }
+
+
+    // Scans the segments from (included) to (excluded), writing only the selection words of those segments
+    interface SegmentScan
+    {
+        void scan (int from, int to);
+    }
+
+
+    // Returns a selection of every entry of a table
+    static long[] all (Table table)
+    {
+        long[] selection = new long [words (table)];
+
+        Arrays.fill (selection, -1L);
+        trim (table, selection);
+        return selection;
+    }
+
+
+    // Keeps only the entries that are in both selections, the result is stored in the first selection
+    // Returns false if no entry is left, so the remaining conditions do not have to be scanned
+    static boolean and (long[] selection, long[] other)
+    {
+        long any = 0;
+
+        for (int w = 0 ; w < selection.length ; w++)
+        {
+            selection [w] &= other [w];
+            any |= selection [w];
+        }
+        return any != 0;
+    }
+
+
+    // Selects the entries whose number in a category compares with a value, operator is Query.LESS, LESS_EQUAL, GREATER or GREATER_EQUAL
+    // Only cells that are numbers can be selected. Numbers are ordered like Double.compare, the way Query.Condition.matches
+    // and the sorted index order them, so -0 comes before 0 and NaN after every other number
+    static long[] compare (final Table table, final int column, final int operator, final double value)
+    {
+        final long[] selection = new long [words (table)];
+        final long key = orderKey (value); // Comparing the keys as longs gives the order of Double.compare
+
+        table.decodeColumn (column);
+        forEachSegment (table, (from, to) ->
+        {
+            for (int s = from ; s < to ; s++)
+            {
+                Segment segment = table.segment (s);
+                double[] numbers = segment.numbers [column];
+                long[] numeric = segment.numeric [column];
+                int base = s * WORDS, words = Math.min (WORDS, selection.length - base);
+
+                if (numbers == null) // The segment holds no numbers in this category
+                {
+                    continue;
+                }
+                for (int w = 0 ; w < words ; w++) // One kernel per operator keeps the comparison out of the inner loop
+                {
+                    long bits = 0;
+                    int offset = w << 6;
+
+                    switch (operator)
+                    {
+                        case Query.LESS:
+                            for (int b = 0 ; b < 64 ; b++)
+                            {
+                                bits |= (orderKey (numbers [offset + b]) < key ? 1L : 0L) << b;
+                            }
+                            break;
+                        case Query.LESS_EQUAL:
+                            for (int b = 0 ; b < 64 ; b++)
+                            {
+                                bits |= (orderKey (numbers [offset + b]) <= key ? 1L : 0L) << b;
+                            }
+                            break;
+                        case Query.GREATER:
+                            for (int b = 0 ; b < 64 ; b++)
+                            {
+                                bits |= (orderKey (numbers [offset + b]) > key ? 1L : 0L) << b;
+                            }
+                            break;
+                        default:
+                            for (int b = 0 ; b < 64 ; b++)
+                            {
+                                bits |= (orderKey (numbers [offset + b]) >= key ? 1L : 0L) << b;
+                            }
+                            break;
+                    }
+                    selection [base + w] = bits & numeric [w]; // Cells that are not numbers hold 0 in the array and are dropped here
+                }
+            }
+        });
+        trim (table, selection);
+        return selection;
+    }
+
+
+    // Runs a scan over every segment of a table, a table with at least Table.parallelThreshold entries is split
+    // into ranges of segments that are scanned at the same time on the fork-join pool
+    // Every segment writes its own words of the selection, so the result is the same as scanning on one thread
+    static void forEachSegment (Table table, SegmentScan scan)
+    {
+        if (Table.parallel (table.size ()))
+        {
+            ForkJoinPool.commonPool ().invoke (new ScanTask (scan, 0, table.segmentCount ()));
+        }
+        else
+        {
+            scan.scan (0, table.segmentCount ());
+        }
+    }
+
+
+    // Returns the number of selected entries
+    static int count (long[] selection)
+    {
+        int count = 0;
+
+        for (int w = 0 ; w < selection.length ; w++)
+        {
+            count += Long.bitCount (selection [w]);
+        }
+        return count;
+    }
+
+
+    // Selects the entries of a category with a dictionary whose code is marked in matches, matches [code] is true for the codes to select
+    // The category has to be decoded with Table.decodeColumn before the codes are looked at, decoding can add codes or drop the dictionary
+    static long[] matchCodes (final Table table, final int column, final boolean[] matches)
+    {
+        final long[] selection = new long [words (table)];
+
+        forEachSegment (table, (from, to) ->
+        {
+            for (int s = from ; s < to ; s++)
+            {
+                int[] codes = table.segment (s).codes [column];
+                int base = s * WORDS, words = Math.min (WORDS, selection.length - base);
+
+                if (codes == null)
+                {
+                    continue;
+                }
+                for (int w = 0 ; w < words ; w++)
+                {
+                    long bits = 0;
+                    int offset = w << 6;
+
+                    for (int b = 0 ; b < 64 ; b++)
+                    {
+                        bits |= (matches [codes [offset + b]] ? 1L : 0L) << b;
+                    }
+                    selection [base + w] = bits;
+                }
+            }
+        });
+        trim (table, selection);
+        return selection;
+    }
+
+
+    // Selects the entries of a category whose cell passes a test, for categories that store Strings
+    static long[] matchValues (final Table table, final int column, final CellTest test)
+    {
+        final long[] selection = new long [words (table)];
+
+        table.decodeColumn (column);
+        forEachSegment (table, (from, to) ->
+        {
+            for (int s = from ; s < to ; s++)
+            {
+                Segment segment = table.segment (s);
+                String[] values = segment.values [column];
+                double[] numbers = segment.numbers [column];
+                long[] numeric = segment.numeric [column];
+                int base = s * WORDS, count = Math.min (Table.SEGMENT_SIZE, table.size () - (s << Table.SEGMENT_BITS));
+
+                if (values == null)
+                {
+                    continue;
+                }
+                for (int offset = 0 ; offset < count ; offset++)
+                {
+                    boolean isNumber = (numeric [offset >> 6] & (1L << offset)) != 0;
+
+                    if (values [offset] != null && test.matches (values [offset], isNumber, isNumber ? numbers [offset] : 0))
+                    {
+                        selection [base + (offset >> 6)] |= 1L << offset;
+                    }
+                }
+            }
+        });
+        return selection;
+    }
+
+
+    // Returns a selection of the entries with the given row ids
+    static long[] of (Table table, int[] rows)
+    {
+        long[] selection = new long [words (table)];
+
+        for (int i = 0 ; i < rows.length ; i++)
+        {
+            selection [rows [i] >> 6] |= 1L << rows [i];
+        }
+        return selection;
+    }
+
+
+    // Returns the row ids of the selected entries in ascending order, stopping after limit entries (-1 for no limit)
+    static int[] rows (long[] selection, int limit)
+    {
+        int count = count (selection), next = 0;
+        int[] rows = new int [(limit >= 0) ? Math.min (limit, count) : count];
+
+        for (int w = 0 ; w < selection.length && next < rows.length ; w++)
+        {
+            long bits = selection [w];
+
+            while (bits != 0 && next < rows.length) // Visits only the set bits
+            {
+                rows [next++] = (w << 6) + Long.numberOfTrailingZeros (bits);
+                bits &= bits - 1;
+            }
+        }
+        return rows;
+    }
+
+
+    // Returns the count, sum, smallest and largest number of the selected cells of a category that are numbers
+    // The result is {count, sum, min, max}, min and max are NaN when no selected cell is a number
+    static double[] summarize (Table table, int column, long[] selection)
+    {
+        double sum = 0, min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+        long count = 0;
+
+        table.decodeColumn (column);
+        for (int s = 0 ; s < table.segmentCount () ; s++)
+        {
+            Segment segment = table.segment (s);
+            double[] numbers = segment.numbers [column];
+            long[] numeric = segment.numeric [column];
+            int base = s * WORDS, words = Math.min (WORDS, selection.length - base);
+
+            if (numbers == null)
+            {
+                continue;
+            }
+            for (int w = 0 ; w < words ; w++)
+            {
+                long bits = selection [base + w] & numeric [w];
+                int offset = w << 6;
+
+                if (bits == -1L) // A full word is summed without looking at the bits
+                {
+                    for (int b = 0 ; b < 64 ; b++)
+                    {
+                        double number = numbers [offset + b];
+
+                        sum += number;
+                        min = Math.min (min, number);
+                        max = Math.max (max, number);
+                    }
+                    count += 64;
+                    continue;
+                }
+                count += Long.bitCount (bits);
+                while (bits != 0)
+                {
+                    double number = numbers [offset + Long.numberOfTrailingZeros (bits)];
+
+                    sum += number;
+                    min = Math.min (min, number);
+                    max = Math.max (max, number);
+                    bits &= bits - 1;
+                }
+            }
+        }
+        return new double [] {count, sum, (count == 0) ? Double.NaN : min, (count == 0) ? Double.NaN : max};
+    }
+
+
+    // Splits a range of segments in half until each part holds about Table.parallelThreshold entries
+    private static class ScanTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L; // The task is never serialized, the fork-join pool only runs it
+        private final SegmentScan scan; // The scan to run on each part
+        private final int from, to; // The range of segments, from included and to excluded
+
+
+        ScanTask (SegmentScan scan, int from, int to)
+        {
+            this.scan = scan;
+            this.from = from;
+            this.to = to;
+        }
+
+
+        // Scans the range or splits it and scans both halves at the same time
+        protected void compute ()
+        {
+            int middle = (from + to) >>> 1;
+
+            if ((long) (to - from) << Table.SEGMENT_BITS <= Math.max (Table.parallelThreshold, Table.SEGMENT_SIZE))
+            {
+                scan.scan (from, to);
+                return;
+            }
+            invokeAll (new ScanTask (scan, from, middle), new ScanTask (scan, middle, to));
+        }
+    }
+
+
+    // Returns a long that orders numbers the way Double.compare does when compared with <, -0 before 0 and NaN after
+    // every other number. The bits of a negative number are flipped so that a larger magnitude gives a smaller key
+    private static long orderKey (double number)
+    {
+        long bits = Double.doubleToLongBits (number); // Every NaN gets the same bits
+
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+
+    // Clears the bits past the last entry, the arrays of the last segment can hold leftovers of removed entries there
+    private static void trim (Table table, long[] selection)
+    {
+        int rest = table.size () & 63;
+
+        if (rest != 0)
+        {
+            selection [selection.length - 1] &= (1L << rest) - 1;
+        }
+    }
+
+
+    // Returns the number of selection words needed for every entry of a table
+    private static int words (Table table)
+    {
+        return (table.size () + 63) >> 6;
+    }
+}
@@ -0,0 +1,202 @@
+/*--------------------------------------------------------------------------------------*/
+/*                                                                                      */
+/*  Credential.java - Turns database passwords into salted hashes, so neither           */
+/*                    namespasswords.ssf nor its log holds a password that can be read  */
+/*                    back.                                                             */
+/*                                                                                      */
+/*                    A stored credential looks like                                    */
+/*                                                                                      */
+/*                        pbkdf2$<iterations>$<salt>$<hash>                             */
+/*                                                                                      */
+/*                    where the salt (16 random bytes) and the hash (32 bytes of        */
+/*                    PBKDF2 with HMAC-SHA256) are written in Base64. The number of     */
+/*                    iterations is the cost, set with -DpasswordIterations=<n>, and    */
+/*                    each credential keeps the cost it was made with, so raising it    */
+/*                    does not lock anyone out. A credential made with a lower cost, or */
+/*                    a password from before hashing, which is stored as it was typed,  */
+/*                    is hashed again the next time it is used to log in (needsRehash). */
+/*                                                                                      */
+/*                    Hashes are compared in constant time. A password that was checked */
+/*                    is remembered for a short time (-DpasswordCacheSeconds=<s>) as a  */
+/*                    fast SHA-256 of the password and its credential, so a program     */
+/*                    that opens the same database again and again only pays the cost   */
+/*                    of the hash once. Changing the password changes the credential,   */
+/*                    which makes the remembered check useless.                         */
+/*                                                                                      */
+/*--------------------------------------------------------------------------------------*/
+
+import java.nio.charset.*;
+import java.security.*;
+import java.security.spec.*;
+import java.util.*;
+import javax.crypto.*;
+import javax.crypto.spec.*;
+
+class Credential
+{
+    static final String PREFIX = "pbkdf2$"; // Starts every hashed credential, a credential without it is a password from before hashing
+    static final String ALGORITHM = "PBKDF2WithHmacSHA256"; // The key derivation function
+    static final int SALT_SIZE = 16; // The bytes of random salt in a credential
+    static final int HASH_SIZE = 32; // The bytes of hash in a credential
+    static final int CACHE_SIZE = 256; // The most passwords that are remembered at once
+
+    static int iterations = Integer.getInteger ("passwordIterations", 100000); // The cost of new hashes, set with -DpasswordIterations=<n>
+    static int cacheSeconds = Integer.getInteger ("passwordCacheSeconds", 300); // How long a checked password is remembered, 0 to never remember
+
+    private static final SecureRandom random = new SecureRandom (); // Makes the salts
+    private static final Map<String, Verified> cache = new LinkedHashMap<String, Verified> (16, 0.75f, true); // Checked passwords by credential, least recently used first
+
+
+    // A password that was checked against a credential
+    private static class Verified
+    {
+        final byte[] digest; // SHA-256 of the credential and the password
+        final long expires; // When the check has to be done again, from System.nanoTime
+
+
+        Verified (byte[] digest, long expires)
+        {
+            this.digest = digest;
+            this.expires = expires;
+        }
+    }
+
+
+    // Returns a new salted hash of a password, made with the current cost
+    // The password is remembered as checked, so logging in right after it was set or hashed again costs nothing more
+    static String hash (String password)
+    {
+        byte[] salt = new byte [SALT_SIZE];
+        String credential;
+
+        random.nextBytes (salt);
+        credential = PREFIX + iterations + "$" + Base64.getEncoder ().encodeToString (salt) + "$"
+            + Base64.getEncoder ().encodeToString (derive (password, salt, iterations));
+        remember (password, credential);
+        return credential;
+    }
+
+
+    // Returns true if a credential should be replaced by a new hash, because it is a password from before hashing
+    // or was made with a lower cost than the current one
+    static boolean needsRehash (String credential)
+    {
+        String[] parts = credential.split ("\\$");
+
+        if (!credential.startsWith (PREFIX) || parts.length != 4)
+        {
+            return true;
+        }
+        try
+        {
+            return Integer.parseInt (parts [1]) < iterations;
+        }
+        catch (NumberFormatException e) // A damaged cost can not be checked, so the credential is made again
+        {
+            return true;
+        }
+    }
+
+
+    // Returns true if a password matches a stored credential, both hashed credentials and passwords from before hashing are checked
+    static boolean verify (String password, String credential)
+    {
+        String[] parts;
+        byte[] hash;
+        boolean matches;
+
+        if (password == null || credential == null)
+        {
+            return false;
+        }
+        if (!credential.startsWith (PREFIX)) // A password from before hashing is compared directly, still in constant time
+        {
+            return MessageDigest.isEqual (password.getBytes (StandardCharsets.UTF_8), credential.getBytes (StandardCharsets.UTF_8));
+        }
+        synchronized (cache)
+        {
+            Verified verified = cache.get (credential);
+
+            if (verified != null && verified.expires - System.nanoTime () > 0 && MessageDigest.isEqual (verified.digest, digest (password, credential)))
+            {
+                return true;
+            }
+        }
+
+        parts = credential.split ("\\$");
+        if (parts.length != 4)
+        {
+            return false;
+        }
+        try
+        {
+            hash = Base64.getDecoder ().decode (parts [3]);
+            matches = MessageDigest.isEqual (derive (password, Base64.getDecoder ().decode (parts [2]), Integer.parseInt (parts [1])), hash);
+        }
+        catch (IllegalArgumentException e) // A damaged cost, salt or hash (NumberFormatException is one too) matches no password
+        {
+            return false;
+        }
+        if (matches)
+        {
+            remember (password, credential);
+        }
+        return matches;
+    }
+
+
+    // Runs the key derivation function
+    private static byte[] derive (String password, byte[] salt, int iterations)
+    {
+        PBEKeySpec spec = new PBEKeySpec (password.toCharArray (), salt, iterations, HASH_SIZE * 8);
+
+        try
+        {
+            return SecretKeyFactory.getInstance (ALGORITHM).generateSecret (spec).getEncoded ();
+        }
+        catch (GeneralSecurityException e) // Every Java runtime has to provide PBKDF2 with HMAC-SHA256
+        {
+            throw new IllegalStateException ("Passwords cannot be hashed: " + e.getMessage (), e);
+        }
+        finally
+        {
+            spec.clearPassword ();
+        }
+    }
+
+
+    // Remembers for a short time that a password matches a credential
+    private static void remember (String password, String credential)
+    {
+        if (cacheSeconds <= 0)
+        {
+            return;
+        }
+        synchronized (cache)
+        {
+            cache.put (credential, new Verified (digest (password, credential), System.nanoTime () + cacheSeconds * 1000000000L));
+            if (cache.size () > CACHE_SIZE) // Forgets the password that was used least recently
+            {
+                cache.remove (cache.keySet ().iterator ().next ());
+            }
+        }
+    }
+
+
+    // Returns the fast digest that a checked password is remembered by
+    private static byte[] digest (String password, String credential)
+    {
+        try
+        {
+            MessageDigest sha = MessageDigest.getInstance ("SHA-256");
+
+            sha.update (credential.getBytes (StandardCharsets.UTF_8));
+            sha.update ((byte) 0);
+            return sha.digest (password.getBytes (StandardCharsets.UTF_8));
+        }
+        catch (NoSuchAlgorithmException e) // Every Java runtime has to provide SHA-256
+        {
+            throw new IllegalStateException ("Passwords cannot be checked: " + e.getMessage (), e);
+        }
+    }
+}
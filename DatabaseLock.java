@@ -0,0 +1,258 @@
+/*--------------------------------------------------------------------------------------*/
+/*                                                                                      */
+/*  DatabaseLock.java - Keeps programs and threads that use the same file from getting  */
+/*                      in each other's way.                                            */
+/*                                                                                      */
+/*                      Each locked file has a lock file next to it, named like the     */
+/*                      file with .lock added, and two of its bytes are locked with     */
+/*                      FileChannel locks that every program on the computer sees:      */
+/*                                                                                      */
+/*                      byte 0 - shared while the file and its write-ahead log are read */
+/*                               (read), exclusive while they are replaced or reset     */
+/*                               (write), so nothing is read halfway through a save     */
+/*                      byte 1 - held by the one session that may change a database     */
+/*                               (writer), so two sessions can never both load a        */
+/*                               database, change it and save over each other's changes */
+/*                                                                                      */
+/*                      A program can only hold one FileChannel lock on a byte, so the  */
+/*                      threads of a program are lined up first by STRIPES              */
+/*                      ReentrantReadWriteLocks. Each file uses the stripe its name     */
+/*                      hashes to, so threads that use different files rarely wait for  */
+/*                      each other, and the first reader of a file in the program takes */
+/*                      the shared file lock for every reader that follows.             */
+/*                                                                                      */
+/*                      A read or write lock is released by the thread that took it.    */
+/*                      A thread holding a write lock may also read the file, but a     */
+/*                      thread holding a read lock must not ask to write it.            */
+/*                                                                                      */
+/*--------------------------------------------------------------------------------------*/
+
+import java.io.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.locks.*;
+
+class DatabaseLock
+{
+    static final String SUFFIX = ".lock"; // Added to the file name to name its lock file
+    static final int STRIPES = 64; // The number of read-write locks that the files of a program share
+
+    private static final int READ = 0; // A shared lock on the file
+    private static final int WRITE = 1; // An exclusive lock on the file
+    private static final int WRITER = 2; // The lock of the session that may change the database
+
+    private static final long FILE_BYTE = 0; // The byte of the lock file that read and write lock
+    private static final long WRITER_BYTE = 1; // The byte of the lock file that the writer session locks
+
+    private static final ReentrantReadWriteLock[] stripes = newStripes (); // The locks that line up the threads of this program
+    private static final Map<String, LockFile> lockFiles = new HashMap<String, LockFile> (); // The lock files in use, by their full path
+
+    private final LockFile lockFile; // The lock file this lock belongs to
+    private final int kind; // READ, WRITE or WRITER
+    private boolean released = false; // True once the lock was released
+
+
+    // A lock file that is in use, and the locks this program holds on it
+    private static class LockFile
+    {
+        final String path; // The full path of the lock file
+        final FileChannel channel; // Locks the bytes of the lock file
+        final ReentrantReadWriteLock stripe; // The read-write lock of the stripe the file belongs to
+        int users = 0; // The number of locks that use the channel, it is closed when the last one is released
+        int readers = 0; // The number of read locks held in this program
+        int writes = 0; // The number of write locks the thread holding the stripe has taken
+        FileLock shared = null; // The shared lock on the file byte while there are readers
+        FileLock exclusive = null; // The exclusive lock on the file byte while there is a write lock
+        FileLock writer = null; // The lock on the writer byte while a session may change the database
+
+
+        LockFile (String path) throws IOException
+        {
+            this.path = path;
+            channel = FileChannel.open (Paths.get (path), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            stripe = stripes [Math.floorMod (path.hashCode (), STRIPES)];
+        }
+    }
+
+
+    private DatabaseLock (LockFile lockFile, int kind)
+    {
+        this.lockFile = lockFile;
+        this.kind = kind;
+    }
+
+
+    // Waits until no other program or thread is replacing the file, then holds it open for reading until release
+    static DatabaseLock read (String fileName) throws IOException
+    {
+        LockFile lockFile = use (fileName);
+
+        lockFile.stripe.readLock ().lock ();
+        try
+        {
+            synchronized (lockFile)
+            {
+                if (lockFile.readers == 0 && lockFile.exclusive == null) // A thread that is writing the file already keeps other programs out
+                {
+                    lockFile.shared = lockFile.channel.lock (FILE_BYTE, 1, true);
+                }
+                lockFile.readers++;
+            }
+        }
+        catch (IOException e)
+        {
+            lockFile.stripe.readLock ().unlock ();
+            unuse (lockFile);
+            throw e;
+        }
+        return new DatabaseLock (lockFile, READ);
+    }
+
+
+    // Lets go of the lock, later calls do nothing
+    void release () throws IOException
+    {
+        if (released)
+        {
+            return;
+        }
+        released = true;
+        try
+        {
+            synchronized (lockFile)
+            {
+                if (kind == READ && --lockFile.readers == 0 && lockFile.shared != null)
+                {
+                    lockFile.shared.release ();
+                    lockFile.shared = null;
+                }
+                else if (kind == WRITE && --lockFile.writes == 0)
+                {
+                    lockFile.exclusive.release ();
+                    lockFile.exclusive = null;
+                }
+                else if (kind == WRITER)
+                {
+                    lockFile.writer.release ();
+                    lockFile.writer = null;
+                }
+            }
+        }
+        finally
+        {
+            if (kind == READ)
+            {
+                lockFile.stripe.readLock ().unlock ();
+            }
+            else if (kind == WRITE)
+            {
+                lockFile.stripe.writeLock ().unlock ();
+            }
+            unuse (lockFile);
+        }
+    }
+
+
+    // Waits until no other program or thread is reading or replacing the file, then keeps them out until release
+    static DatabaseLock write (String fileName) throws IOException
+    {
+        LockFile lockFile = use (fileName);
+
+        lockFile.stripe.writeLock ().lock ();
+        try
+        {
+            synchronized (lockFile)
+            {
+                if (lockFile.writes == 0)
+                {
+                    lockFile.exclusive = lockFile.channel.lock (FILE_BYTE, 1, false);
+                }
+                lockFile.writes++;
+            }
+        }
+        catch (IOException e)
+        {
+            lockFile.stripe.writeLock ().unlock ();
+            unuse (lockFile);
+            throw e;
+        }
+        return new DatabaseLock (lockFile, WRITE);
+    }
+
+
+    // Makes this session the only one that may change the database until release, returns null without waiting if
+    // another session in this or another program already may change it
+    static DatabaseLock writer (String fileName) throws IOException
+    {
+        LockFile lockFile = use (fileName);
+        FileLock taken = null; // Stays null if the lock is held elsewhere
+
+        try
+        {
+            synchronized (lockFile)
+            {
+                if (lockFile.writer == null) // Not null while another session of this program holds the lock
+                {
+                    lockFile.writer = lockFile.channel.tryLock (WRITER_BYTE, 1, false);
+                    taken = lockFile.writer;
+                }
+            }
+        }
+        finally
+        {
+            if (taken == null)
+            {
+                unuse (lockFile);
+            }
+        }
+        return (taken == null) ? null : new DatabaseLock (lockFile, WRITER);
+    }
+
+
+    // Makes the locks that line up the threads of this program
+    private static ReentrantReadWriteLock[] newStripes ()
+    {
+        ReentrantReadWriteLock[] locks = new ReentrantReadWriteLock [STRIPES];
+
+        for (int i = 0 ; i < STRIPES ; i++)
+        {
+            locks [i] = new ReentrantReadWriteLock ();
+        }
+        return locks;
+    }
+
+
+    // Stops using a lock file, its channel is closed when no lock uses it any more
+    private static void unuse (LockFile lockFile) throws IOException
+    {
+        synchronized (lockFiles)
+        {
+            if (--lockFile.users == 0)
+            {
+                lockFiles.remove (lockFile.path);
+                lockFile.channel.close ();
+            }
+        }
+    }
+
+
+    // Returns the lock file of a file, opening it if no lock of this program uses it yet
+    private static LockFile use (String fileName) throws IOException
+    {
+        String path = new File (fileName + SUFFIX).getCanonicalPath ();
+
+        synchronized (lockFiles)
+        {
+            LockFile lockFile = lockFiles.get (path);
+
+            if (lockFile == null)
+            {
+                lockFile = new LockFile (path);
+                lockFiles.put (path, lockFile);
+            }
+            lockFile.users++;
+            return lockFile;
+        }
+    }
+}
@@ -0,0 +1,736 @@
+/*--------------------------------------------------------------------------------------*/
+/*                                                                                      */
+/*  DatabaseSession.java - An open database that is used from Java code instead of      */
+/*                         through the menus. It checks credentials against the         */
+/*                         catalog (see Catalog), loads and saves the same files, and   */
+/*                         applies the same rules to values as the menus, but it never  */
+/*                         reads from the keyboard, prints or waits.                    */
+/*                                                                                      */
+/*                         Entries and categories are numbered from 0 here, the menus   */
+/*                         and batch scripts number them from 1.                        */
+/*                                                                                      */
+/*                         Every change is appended to the write-ahead log right away.  */
+/*                         commit makes the changes so far safe on disk with one sync,  */
+/*                         save writes them into the database file, and close saves     */
+/*                         and closes the database.                                     */
+/*                                                                                      */
+/*                         begin starts a transaction: the changes that follow, from    */
+/*                         any thread, are kept together by commit (or save) with a     */
+/*                         single record in the log, or all taken back by rollback.     */
+/*                         close takes back a transaction that is still open, and a     */
+/*                         crash never replays part of one.                             */
+/*                                                                                      */
+/*                         Only one session at a time, in any program, may change a     */
+/*                         database (see DatabaseLock). openReadOnly opens a database   */
+/*                         that another session is changing, with the changes that      */
+/*                         session has committed so far.                                */
+/*                                                                                      */
+/*                         A session may be shared by threads. Each change holds the    */
+/*                         write lock of a read-write lock while it is made. Scans      */
+/*                         (export, explain, group, page, query, sorted and summarize)  */
+/*                         read a snapshot of the table instead (see Table.snapshot),   */
+/*                         which is taken under the read lock and then read with no     */
+/*                         lock at all, so a long scan never holds up a change and      */
+/*                         always sees the entries as they were when it started. Scans  */
+/*                         share one snapshot until the next change. Lookups that an    */
+/*                         index answers at once (find, get, prefix, range, size and    */
+/*                         top) use the table itself under the read lock. The sync of a */
+/*                         commit runs without the lock, and a save holds the read lock */
+/*                         so no change is lost between writing the file and starting a */
+/*                         new log.                                                     */
+/*                                                                                      */
+/*--------------------------------------------------------------------------------------*/
+
+import java.io.*;
+import java.util.concurrent.locks.*;
+
+class DatabaseSession
+{
+    private final String[] database; // The name of the database file, including the .ssf extension
+    private final Table table; // The entries of the database
+    private final DatabaseLock writer; // Lets only this session change the database, null if it was opened read-only
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock (); // Lets threads read the table together but change it alone
+    private volatile boolean closed = false; // True once the session was closed
+    private Table current = null; // The snapshot that scans share until the next change, null if none was taken since
+
+
+    private DatabaseSession (String[] database, Table table, DatabaseLock writer)
+    {
+        this.database = database;
+        this.table = table;
+        this.writer = writer;
+    }
+
+
+    // Creates a new database with the given category titles and opens it, blank titles are set to N/A
+    static DatabaseSession create (String name, String password, String[] titles) throws IOException
+    {
+        String[] categoryTitles = new String [Database.CATEGORIES];
+        DatabaseLock namesLock;
+
+        if (name == null || name.trim ().equals (""))
+        {
+            throw new IllegalArgumentException ("A database cannot have an empty name");
+        }
+        if (password == null || password.trim ().length () < 5)
+        {
+            throw new IllegalArgumentException ("The password must be at least 5 characters");
+        }
+        if (titles.length != Database.CATEGORIES)
+        {
+            throw new IllegalArgumentException ("A database has " + Database.CATEGORIES + " categories, " + titles.length + " titles were given");
+        }
+        for (int i = 0 ; i < Database.CATEGORIES ; i++) // The same rules createDatabase uses for category names
+        {
+            categoryTitles [i] = (titles [i] == null || titles [i].trim ().equals ("")) ? "N/A" : titles [i];
+            if (categoryTitles [i].trim ().length () > Database.MAX_VALUE_LENGTH)
+            {
+                throw new IllegalArgumentException ("The category name \"" + titles [i] + "\" exceeds the " + Database.MAX_VALUE_LENGTH + " character limit");
+            }
+        }
+
+        namesLock = DatabaseLock.write (Catalog.FILE_NAME); // No other session can add a database with the same name meanwhile
+        try
+        {
+            if (Catalog.contains (name))
+            {
+                throw new IOException ("A database with the name \"" + name + "\" already exists");
+            }
+
+            Database.writeTableFile (name + ".ssf", new Table (categoryTitles), Database.TEXT_LAYOUT); // The file is written before the name is added, so a listed database always has a file
+            Catalog.add (name, password, categoryTitles, 0);
+        }
+        finally
+        {
+            namesLock.release ();
+        }
+        return open (name, password);
+    }
+
+
+    // Opens an existing database to change it, the name and password are checked the same way the login menu checks them
+    static DatabaseSession open (String name, String password) throws IOException
+    {
+        String[] database = login (name, password);
+        DatabaseLock writer = DatabaseLock.writer (database [0]);
+
+        if (writer == null)
+        {
+            throw new IOException ("The database \"" + name.trim () + "\" is being changed in another session, it can only be opened read-only");
+        }
+        try
+        {
+            return new DatabaseSession (database, Database.readDatabaseFile (database), writer);
+        }
+        catch (IOException e)
+        {
+            writer.release ();
+            throw e;
+        }
+    }
+
+
+    // Opens an existing database to search and view it while another session may be changing it
+    static DatabaseSession openReadOnly (String name, String password) throws IOException
+    {
+        String[] database = login (name, password);
+
+        return new DatabaseSession (database, Database.readDatabaseFile (database, true), null);
+    }
+
+
+    // Starts a transaction, the changes until commit or rollback are kept or taken back together
+    void begin () throws IOException
+    {
+        startWrite ();
+        try
+        {
+            table.begin ();
+        }
+        finally
+        {
+            lock.writeLock ().unlock ();
+        }
+    }
+
+
+    // Removes every entry, the category titles are kept
+    void clear () throws IOException
+    {
+        startWrite ();
+        try
+        {
+            table.clear ();
+        }
+        finally
+        {
+            lock.writeLock ().unlock ();
+        }
+    }
+
+
+    // Saves the database and closes it, the session cannot be used afterwards
+    // A read-only session has nothing to save and is only closed
+    void close () throws IOException
+    {
+        lock.writeLock ().lock (); // Waits for the threads that are still using the session
+        try
+        {
+            if (!closed)
+            {
+                if (writer != null)
+                {
+                    if (table.inTransaction ()) // Changes that were never committed are not saved
+                    {
+                        table.rollback ();
+                    }
+                    save ();
+                    table.log ().close ();
+                    writer.release (); // Another session may change the database now
+                }
+                if (current != null) // Scans that still read the snapshot keep it until they finish
+                {
+                    current.release ();
+                    current = null;
+                }
+                closed = true;
+            }
+        }
+        finally
+        {
+            lock.writeLock ().unlock ();
+        }
+    }
+
+
+    // Makes every change so far safe on disk with a single sync of the write-ahead log, ending the open transaction
+    void commit () throws IOException
+    {
+        checkWritable ();
+        endTransaction ();
+        table.log ().sync (); // The sync holds no lock, so other threads keep reading and changing the table while it waits for the disk
+        startRead ();
+        try
+        {
+            Database.checkpoint (database, table); // Keeps the write-ahead log from growing without limit
+        }
+        finally
+        {
+            lock.readLock ().unlock ();
+        }
+    }
+
+
+    // Removes entries given by their numbers from before the removal, the following entries move up past them
+    // Returns the number of entries removed
+    int delete (int... entries) throws IOException
+    {
+        startWrite ();
+        try
+        {
+            if (entries.length == 1)
+            {
+                table.remove (entries [0]);
+                return 1;
+            }
+            return table.removeAll (entries);
+        }
+        finally
+        {
+            lock.writeLock ().unlock ();
+        }
+    }
+
+
+    // Removes every entry a query selects, see Query for the language, and returns the number of entries removed
+    // The query runs on the table itself while no other thread can change it, so exactly the selected entries are removed
+    int delete (String query) throws IOException
+    {
+        startWrite ();
+        try
+        {
+            return table.removeAll (Query.parse (query, table.titles ()).execute (table));
+        }
+        finally
+        {
+            lock.writeLock ().unlock ();
+        }
+    }
+
+
+    // Writes entries to a CSV, JSON lines or .ssf file chosen by the file name's extension, rows null writes every entry
+    void export (String fileName, int[] rows) throws IOException
+    {
+        Table view = snapshot ();
+
+        try
+        {
+            Export.write (fileName, view, rows);
+        }
+        finally
+        {
+            view.release ();
+        }
+    }
+
+
+    // Returns how a query would be run, which index it uses and what it checks, without running it
+    String explain (String text)
+    {
+        Table view = snapshot ();
+
+        try
+        {
+            return Query.parse (text, view.titles ()).explain (view);
+        }
+        finally
+        {
+            view.release ();
+        }
+    }
+
+
+    // Returns the entries whose value in a category matches, ignoring case
+    int[] find (int category, String value)
+    {
+        startRead ();
+        try
+        {
+            return table.find (category, value);
+        }
+        finally
+        {
+            lock.readLock ().unlock ();
+        }
+    }
+
+
+    // Returns all the category values of an entry
+    String[] get (int entry)
+    {
+        startRead ();
+        try
+        {
+            return table.getRow (entry);
+        }
+        finally
+        {
+            lock.readLock ().unlock ();
+        }
+    }
+
+
+    // Groups the entries a query selects by a category and computes aggregates per group, see GroupBy
+    // functions [a] is a GroupBy function and categories [a] the category it reads (ignored for count)
+    GroupBy.Result group (int category, int[] functions, int[] categories, String query)
+    {
+        Table view; // The snapshot that is read
+
+        checkCategory (category);
+        for (int a = 0 ; a < functions.length ; a++)
+        {
+            checkCategory (categories [a]);
+        }
+        view = snapshot ();
+        try
+        {
+            return GroupBy.aggregate (view, category, functions, categories, select (view, query));
+        }
+        finally
+        {
+            view.release ();
+        }
+    }
+
+
+    // Adds every entry of a CSV or TSV file and saves the database, see BulkImport for the rules lines must follow
+    BulkImport importFile (String fileName, boolean header) throws IOException
+    {
+        WriteAheadLog log;
+
+        startWrite ();
+        log = table.log ();
+        try
+        {
+            table.attachLog (null); // The entries are written once by the save instead of also going through the log
+            try
+            {
+                return BulkImport.addFile (fileName, table, header);
+            }
+            finally // Saving also covers the entries added before a read error, so the file and the log agree again
+            {
+                table.attachLog (log);
+                save ();
+            }
+        }
+        finally
+        {
+            lock.writeLock ().unlock ();
+        }
+    }
+
+
+    // Adds an entry to the end of the database and returns its entry number, blank values are set to N/A
+    int insert (String... values) throws IOException
+    {
+        String[] entry = new String [Database.CATEGORIES];
+
+        if (values.length != Database.CATEGORIES)
+        {
+            throw new IllegalArgumentException ("An entry has " + Database.CATEGORIES + " categories, " + values.length + " values were given");
+        }
+        for (int i = 0 ; i < Database.CATEGORIES ; i++)
+        {
+            entry [i] = Database.normalizeValue (values [i]);
+        }
+        startWrite ();
+        try
+        {
+            return table.add (entry);
+        }
+        finally
+        {
+            lock.writeLock ().unlock ();
+        }
+    }
+
+
+    // Returns the name of the database, without the .ssf extension
+    String name ()
+    {
+        return database [0].substring (0, database [0].length () - 4);
+    }
+
+
+    // Returns a page of entries in the order sort would put them in, without sorting or changing the order of the database
+    // The page holds the first count entries that come after the entry after in that order (-1 for the first page),
+    // so the last entry of a page is the cursor of the next one
+    int[] page (int category, boolean descending, int after, int count)
+    {
+        Table view; // The snapshot that is read
+
+        checkCategory (category);
+        view = snapshot ();
+        try
+        {
+            if (after >= view.size ())
+            {
+                throw new IllegalArgumentException ("There is no entry " + (after + 1));
+            }
+            return TableSort.top (view, null, TableSort.priority (category, Database.CATEGORIES), descending, after, count);
+        }
+        finally
+        {
+            view.release ();
+        }
+    }
+
+
+    // Returns the entries whose value in a category starts with the prefix (case sensitive), in sorted order
+    int[] prefix (int category, String prefix)
+    {
+        startRead ();
+        try
+        {
+            return table.prefix (category, prefix);
+        }
+        finally
+        {
+            lock.readLock ().unlock ();
+        }
+    }
+
+
+    // Returns the entries a query selects, see Query for the language
+    int[] query (String text)
+    {
+        Table view = snapshot ();
+
+        try
+        {
+            return Query.parse (text, view.titles ()).execute (view);
+        }
+        finally
+        {
+            view.release ();
+        }
+    }
+
+
+    // Returns the entries whose value in a category is between low and high (both included, null for no limit), in sorted order
+    int[] range (int category, String low, String high)
+    {
+        startRead ();
+        try
+        {
+            return table.range (category, low, high);
+        }
+        finally
+        {
+            lock.readLock ().unlock ();
+        }
+    }
+
+
+    // Takes back every change since begin
+    void rollback ()
+    {
+        startWrite ();
+        try
+        {
+            table.rollback ();
+        }
+        finally
+        {
+            lock.writeLock ().unlock ();
+        }
+    }
+
+
+    // Writes every entry into the database file and starts a new write-ahead log
+    // Changes wait until the file is written, searches and views keep going
+    void save () throws IOException
+    {
+        checkWritable ();
+        endTransaction (); // The changes of an open transaction are kept, like commit
+        startRead ();
+        try
+        {
+            Database.writeDatabaseFile (database, table);
+        }
+        finally
+        {
+            lock.readLock ().unlock ();
+        }
+    }
+
+
+    // Returns the number of entries
+    int size ()
+    {
+        startRead ();
+        try
+        {
+            return table.size ();
+        }
+        finally
+        {
+            lock.readLock ().unlock ();
+        }
+    }
+
+
+    // Returns every entry in the order sort would put them in, without changing the order of the database
+    int[] sorted (int category, boolean descending)
+    {
+        Table view = snapshot ();
+
+        try
+        {
+            return TableSort.sortOrder (view, TableSort.priority (category, Database.CATEGORIES), descending);
+        }
+        finally
+        {
+            view.release ();
+        }
+    }
+
+
+    // Sorts the entries by a category, ties are sorted by the remaining categories in ascending category number like the sort menu
+    void sort (int category, boolean descending) throws IOException
+    {
+        startWrite ();
+        try
+        {
+            table.sort (TableSort.priority (category, Database.CATEGORIES), descending);
+        }
+        finally
+        {
+            lock.writeLock ().unlock ();
+        }
+    }
+
+
+    // Returns {count, sum, min, max} of the numbers in a category for the entries a query selects, see ColumnScan.summarize
+    double[] summarize (int category, String query)
+    {
+        Table view; // The snapshot that is read
+
+        checkCategory (category);
+        view = snapshot ();
+        try
+        {
+            return ColumnScan.summarize (view, category, select (view, query));
+        }
+        finally
+        {
+            view.release ();
+        }
+    }
+
+
+    // Returns the category titles
+    String[] titles ()
+    {
+        checkOpen ();
+        return table.titles (); // The titles never change, so they need no lock
+    }
+
+
+    // Returns the first n entries sorted by a category, largest values first if largest is true
+    int[] top (int category, int n, boolean largest)
+    {
+        startRead ();
+        try
+        {
+            return table.top (category, n, largest);
+        }
+        finally
+        {
+            lock.readLock ().unlock ();
+        }
+    }
+
+
+    // Changes the value of a category for an entry, a blank value is set to N/A
+    void update (int entry, int category, String value) throws IOException
+    {
+        startWrite ();
+        try
+        {
+            table.set (category, entry, Database.normalizeValue (value));
+        }
+        finally
+        {
+            lock.writeLock ().unlock ();
+        }
+    }
+
+
+    // Makes sure a category number exists
+    private void checkCategory (int category)
+    {
+        if (category < 0 || category >= table.columnCount ())
+        {
+            throw new IllegalArgumentException ("There is no category " + (category + 1));
+        }
+    }
+
+
+    // Makes sure the session was not closed
+    private void checkOpen ()
+    {
+        if (closed)
+        {
+            throw new IllegalStateException ("The database \"" + name () + "\" was closed");
+        }
+    }
+
+
+    // Makes sure the session is open and may change the database
+    private void checkWritable ()
+    {
+        checkOpen ();
+        if (writer == null)
+        {
+            throw new IllegalStateException ("The database \"" + name () + "\" was opened read-only");
+        }
+    }
+
+
+    // Ends the open transaction, if there is one, while no other thread is changing the table
+    // Its record is appended under the lock, so a change or a new transaction of another thread never joins it
+    // The record is not synced yet, commit syncs it after releasing the lock and save writes the database file instead
+    private void endTransaction () throws IOException
+    {
+        lock.writeLock ().lock ();
+        try
+        {
+            table.endTransaction ();
+        }
+        finally
+        {
+            lock.writeLock ().unlock ();
+        }
+    }
+
+
+    // Checks a database name and password and returns the name of its file
+    private static String[] login (String name, String password) throws IOException
+    {
+        if (!Database.validateNamePassword (name, password))
+        {
+            throw new IOException ("The database name or password is not correct");
+        }
+        return new String [] {name.trim () + ".ssf"};
+    }
+
+
+    // Returns the entries a query selects from a snapshot as a bitmap, a blank query selects every entry
+    private long[] select (Table view, String query)
+    {
+        return query.trim ().equals ("") ? ColumnScan.all (view) : ColumnScan.of (view, Query.parse (query, view.titles ()).execute (view));
+    }
+
+
+    // Returns a snapshot of the entries as they are now, for a scan that holds no lock while it reads
+    // Scans share the snapshot until the next change, and each one releases it when it is done
+    private Table snapshot ()
+    {
+        startRead (); // Keeps changes out while the snapshot is taken
+        try
+        {
+            synchronized (this) // Two scans that start together take one snapshot
+            {
+                if (current == null)
+                {
+                    current = table.snapshot ();
+                }
+                current.retain (); // The session keeps its own use until the next change
+                return current;
+            }
+        }
+        finally
+        {
+            lock.readLock ().unlock ();
+        }
+    }
+
+
+    // Takes the read lock, cells that are still in the mapped file are decoded first under the write lock,
+    // because decoding changes the table and threads that only read must not see it halfway
+    private void startRead ()
+    {
+        checkOpen ();
+        if (!table.decoded ())
+        {
+            lock.writeLock ().lock ();
+            try
+            {
+                for (int c = 0 ; c < table.columnCount () ; c++)
+                {
+                    table.decodeColumn (c);
+                }
+            }
+            finally
+            {
+                lock.writeLock ().unlock ();
+            }
+        }
+        lock.readLock ().lock ();
+    }
+
+
+    // Takes the write lock, the session must be allowed to change the database
+    // The shared snapshot no longer matches the table once it changes, so the next scan takes a new one
+    private void startWrite ()
+    {
+        checkWritable ();
+        lock.writeLock ().lock ();
+        if (current != null)
+        {
+            current.release ();
+            current = null;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+/*--------------------------------------------------------------------------------------*/
+/*                                                                                      */
+/*  Export.java - Writes a selection of entries to a file, either every entry, the      */
+/*                results of a search, or the entries in a sorted order.                */
+/*                                                                                      */
+/*                The format comes from the end of the file name:                       */
+/*                  .csv          values separated by commas, with a title line         */
+/*                  .json .jsonl  one JSON object per line, keyed by category title     */
+/*                  .ssf          a database file that the program can open             */
+/*                                                                                      */
+/*                Each entry is read from the Table and written straight into a         */
+/*                64 KB buffer, so no copy of the entries is made and the memory used   */
+/*                does not grow with the number of entries. Values of a mapped file     */
+/*                are read with Table.peek, so exporting does not load the whole file.  */
+/*                The file is written through Persistence, so an export that fails      */
+/*                leaves no partial file behind.                                        */
+/*                                                                                      */
+/*--------------------------------------------------------------------------------------*/
+
+import java.io.*;
+
+class Export
+{
+    static final int CSV = 0; // Values separated by commas, readable by BulkImport and spreadsheet programs
+    static final int JSON = 1; // JSON lines, one object per entry
+    static final int SSF = 2; // The database file layout
+
+
+    // Returns the format of a file name, or -1 if the extension is not one that can be exported
+    static int format (String fileName)
+    {
+        String lower = fileName.toLowerCase ();
+
+        if (lower.endsWith (".csv"))
+        {
+            return CSV;
+        }
+        if (lower.endsWith (".json") || lower.endsWith (".jsonl"))
+        {
+            return JSON;
+        }
+        if (lower.endsWith (".ssf"))
+        {
+            return SSF;
+        }
+        return -1;
+    }
+
+
+    // Writes entries of a table to a file in the format of its extension, rows null writes every entry
+    static void write (String fileName, final Table table, final int[] rows) throws IOException
+    {
+        final int format = format (fileName);
+
+        if (format < 0)
+        {
+            throw new IllegalArgumentException ("\"" + fileName + "\" does not end in .csv, .json, .jsonl or .ssf");
+        }
+        Persistence.writeFile (fileName, writer -> write (writer, table, rows, format));
+    }
+
+
+    // Writes entries of a table in a format, one entry at a time, rows null writes every entry in row order
+    static void write (BufferedWriter writer, Table table, int[] rows, int format) throws IOException
+    {
+        String[] keys = (format == JSON) ? keys (table.titles ()) : null; // The JSON keys are built once
+        StringBuilder line = new StringBuilder ();
+        int count = (rows == null) ? table.size () : rows.length;
+
+        if (format == CSV)
+        {
+            csvLine (line, table.titles ());
+            writer.write (line.toString ());
+        }
+        else if (format == SSF)
+        {
+            for (int c = 0 ; c < table.columnCount () ; c++)
+            {
+                Database.writeLine (writer, table.title (c));
+            }
+        }
+
+        for (int i = 0 ; i < count ; i++)
+        {
+            int row = (rows == null) ? i : rows [i];
+
+            if (format == SSF) // The same lines Database.writeTable writes
+            {
+                for (int c = 0 ; c < table.columnCount () ; c++)
+                {
+                    Database.writeLine (writer, table.peek (c, row));
+                }
+                continue;
+            }
+            line.setLength (0);
+            if (format == CSV)
+            {
+                csvRow (line, table, row);
+            }
+            else
+            {
+                jsonRow (line, keys, table, row);
+            }
+            writer.write (line.toString ());
+        }
+    }
+
+
+    // Appends a line of values separated by commas
+    private static void csvLine (StringBuilder line, String[] values)
+    {
+        for (int i = 0 ; i < values.length ; i++)
+        {
+            if (i > 0)
+            {
+                line.append (',');
+            }
+            csvValue (line, values [i]);
+        }
+        line.append ("\r\n"); // CSV lines end in \r\n on every system
+    }
+
+
+    // Appends the values of an entry as a CSV line
+    private static void csvRow (StringBuilder line, Table table, int row)
+    {
+        for (int c = 0 ; c < table.columnCount () ; c++)
+        {
+            if (c > 0)
+            {
+                line.append (',');
+            }
+            csvValue (line, table.peek (c, row));
+        }
+        line.append ("\r\n");
+    }
+
+
+    // Appends a CSV value, in double quotes if it holds a comma, a quote or a line break
+    private static void csvValue (StringBuilder line, String value)
+    {
+        if (value == null) // A cell cut off by the end of a damaged file is written empty
+        {
+            return;
+        }
+        if (value.indexOf (',') < 0 && value.indexOf ('"') < 0 && value.indexOf ('\n') < 0 && value.indexOf ('\r') < 0)
+        {
+            line.append (value);
+            return;
+        }
+        line.append ('"');
+        for (int i = 0 ; i < value.length () ; i++)
+        {
+            if (value.charAt (i) == '"') // A quote inside quotes is written twice
+            {
+                line.append ('"');
+            }
+            line.append (value.charAt (i));
+        }
+        line.append ('"');
+    }
+
+
+    // Appends a value as a JSON string
+    private static void jsonString (StringBuilder line, String value)
+    {
+        line.append ('"');
+        for (int i = 0 ; i < value.length () ; i++)
+        {
+            char c = value.charAt (i);
+
+            if (c == '"' || c == '\\')
+            {
+                line.append ('\\').append (c);
+            }
+            else if (c < ' ') // Control characters are written as unicode escapes
+            {
+                line.append (String.format ("\\u%04x", (int) c));
+            }
+            else
+            {
+                line.append (c);
+            }
+        }
+        line.append ('"');
+    }
+
+
+    // Appends an entry as a JSON object on one line, the values are kept as strings so they read back exactly as stored
+    private static void jsonRow (StringBuilder line, String[] keys, Table table, int row)
+    {
+        line.append ('{');
+        for (int c = 0 ; c < keys.length ; c++)
+        {
+            String value = table.peek (c, row);
+
+            if (c > 0)
+            {
+                line.append (", ");
+            }
+            line.append (keys [c]).append (": ");
+            if (value == null)
+            {
+                line.append ("null");
+            }
+            else
+            {
+                jsonString (line, value);
+            }
+        }
+        line.append ("}\n");
+    }
+
+
+    // Returns the JSON key of each category, a title that more than one category has gets its category number added
+    private static String[] keys (String[] titles)
+    {
+        String[] keys = new String [titles.length];
+
+        for (int c = 0 ; c < titles.length ; c++)
+        {
+            StringBuilder key = new StringBuilder ();
+            boolean repeated = false;
+
+            for (int other = 0 ; other < titles.length ; other++)
+            {
+                repeated |= (other != c) && titles [other].equals (titles [c]);
+            }
+            jsonString (key, repeated ? titles [c] + " " + (c + 1) : titles [c]);
+            keys [c] = key.toString ();
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,618 @@
+/*--------------------------------------------------------------------------------------*/
+/*                                                                                      */
+/*  GroupBy.java - Splits the entries into groups by the value of one category and      */
+/*                 computes aggregates for each group, for example the number of        */
+/*                 entries per species or the average weight per type:                  */
+/*                                                                                      */
+/*                   count             the number of entries in the group               */
+/*                   sum, min, max,    of the numbers in a category, text is skipped    */
+/*                   avg                                                                */
+/*                   distinct          the number of different values in a category     */
+/*                                                                                      */
+/*                 Groups are found with primitive maps instead of HashMaps of boxed    */
+/*                 values: a category with a dictionary uses its codes as the index of  */
+/*                 a flat array, other categories use an open-addressing table of the   */
+/*                 Strings. The distinct values of each group are kept in an open-      */
+/*                 addressing set of longs that packs the group and the value together. */
+/*                                                                                      */
+/*                 The segments of a large table are split between the processors. Each */
+/*                 part is aggregated on its own into a partial result, reading the     */
+/*                 arrays of the segments directly, and the partial results are merged  */
+/*                 at the end. Groups are returned in the order the sort menu uses:     */
+/*                 numbers first from smallest to largest, then text.                   */
+/*                                                                                      */
+/*--------------------------------------------------------------------------------------*/
+
+import java.util.*;
+import java.util.concurrent.*;
+
+class GroupBy
+{
+    static final int COUNT = 0; // Aggregate functions, in the order of NAMES
+    static final int SUM = 1;
+    static final int MIN = 2;
+    static final int MAX = 3;
+    static final int AVERAGE = 4;
+    static final int DISTINCT = 5;
+    static final String[] NAMES = {"count", "sum", "min", "max", "avg", "distinct"}; // How each function is written
+    static final String MISSING = "N/A"; // The group of the cells that hold no value, the same group as an entry left empty
+
+    private final Table table; // The table that is grouped
+    private final int column; // The category whose values form the groups
+    private final int[] functions; // The aggregate function of each result column
+    private final int[] columns; // The category each aggregate reads, ignored for count
+    private final ColumnDictionary[] dictionaries; // The dictionary of every category, captured after decoding
+
+
+    // The groups and their aggregates, sorted by group value
+    static class Result
+    {
+        final String[] keys; // The value of each group
+        final double[][] values; // values [aggregate][group], NaN for min, max and avg of a group without numbers
+
+
+        Result (String[] keys, double[][] values)
+        {
+            this.keys = keys;
+            this.values = values;
+        }
+    }
+
+
+    private GroupBy (Table table, int column, int[] functions, int[] columns)
+    {
+        this.table = table;
+        this.column = column;
+        this.functions = functions;
+        this.columns = columns;
+
+        table.decodeColumn (column); // Every cell is decoded first, the parts only read the arrays
+        for (int a = 0 ; a < functions.length ; a++)
+        {
+            table.decodeColumn (columns [a]);
+        }
+        dictionaries = new ColumnDictionary [table.columnCount ()];
+        for (int c = 0 ; c < dictionaries.length ; c++)
+        {
+            dictionaries [c] = table.dictionary (c);
+        }
+    }
+
+
+    // Groups the selected entries by a category and computes the aggregates of each group
+    // functions [a] is one of the function constants and columns [a] the category it reads
+    static Result aggregate (Table table, int column, int[] functions, int[] columns, long[] selection)
+    {
+        final GroupBy groupBy = new GroupBy (table, column, functions, columns);
+        int parts = Table.parallel (table.size ()) ? Math.max (1, Math.min (Runtime.getRuntime ().availableProcessors (), table.segmentCount ())) : 1;
+        Partial result;
+
+        if (parts == 1)
+        {
+            result = groupBy.partial (selection, 0, table.segmentCount ());
+        }
+        else // Each part aggregates a range of segments into its own partial result
+        {
+            List<Callable<Partial>> tasks = new ArrayList<Callable<Partial>> ();
+
+            for (int p = 0 ; p < parts ; p++)
+            {
+                final int from = (int) ((long) table.segmentCount () * p / parts), to = (int) ((long) table.segmentCount () * (p + 1) / parts);
+
+                tasks.add (() -> groupBy.partial (selection, from, to));
+            }
+            result = groupBy.newPartial ();
+            for (Future<Partial> part : ForkJoinPool.commonPool ().invokeAll (tasks))
+            {
+                try
+                {
+                    result.merge (part.get ());
+                }
+                catch (InterruptedException | ExecutionException e)
+                {
+                    throw new IllegalStateException ("Grouping the entries failed", e);
+                }
+            }
+        }
+        return result.finish ();
+    }
+
+
+    // Returns the function constant of a function name, or -1 if there is no such function
+    static int function (String name)
+    {
+        for (int f = 0 ; f < NAMES.length ; f++)
+        {
+            if (NAMES [f].equalsIgnoreCase (name))
+            {
+                return f;
+            }
+        }
+        return name.equalsIgnoreCase ("average") ? AVERAGE : -1;
+    }
+
+
+    // Returns an empty partial result
+    private Partial newPartial ()
+    {
+        return new Partial ();
+    }
+
+
+    // Aggregates the selected entries of the segments from (included) to (excluded)
+    private Partial partial (long[] selection, int from, int to)
+    {
+        Partial partial = new Partial ();
+        int[] groupOf = new int [64]; // The group of each selected row of a selection word
+        int nullCode = -1, missingCode = -1; // The dictionary codes of a cell without a value and of N/A, -1 if no cell holds them
+
+        if (dictionaries [column] != null)
+        {
+            nullCode = dictionaries [column].code (null);
+            missingCode = dictionaries [column].code (MISSING);
+        }
+
+        for (int s = from ; s < to ; s++)
+        {
+            Segment segment = table.segment (s);
+            int[] codes = (dictionaries [column] != null) ? segment.codes [column] : null;
+            String[] values = (dictionaries [column] != null) ? null : segment.values [column];
+
+            for (int w = 0 ; w < ColumnScan.WORDS && s * ColumnScan.WORDS + w < selection.length ; w++)
+            {
+                long bits = selection [s * ColumnScan.WORDS + w];
+                int found = 0;
+
+                for (long rest = bits ; rest != 0 ; rest &= rest - 1) // Finds the group of each selected row once
+                {
+                    int offset = (w << 6) + Long.numberOfTrailingZeros (rest);
+                    int group;
+
+                    if (codes != null) // A cell without a value joins the N/A group if one exists, otherwise its own code is named N/A
+                    {
+                        group = partial.groups.id ((codes [offset] == nullCode && missingCode >= 0) ? missingCode : codes [offset]);
+                    }
+                    else
+                    {
+                        group = partial.groups.id ((values != null && values [offset] != null) ? values [offset] : MISSING);
+                    }
+                    partial.grow ();
+                    partial.counts [group]++;
+                    groupOf [found++] = group;
+                }
+                for (int a = 0 ; a < functions.length ; a++) // Then adds the cells of one aggregate at a time
+                {
+                    if (functions [a] != COUNT)
+                    {
+                        partial.add (a, segment, w, bits, groupOf);
+                    }
+                }
+            }
+        }
+        return partial;
+    }
+
+
+    // The groups and aggregates of one part of the table
+    private class Partial
+    {
+        final KeyMap groups = new KeyMap (dictionaries [column]); // The id of each group value
+        long[] counts = new long [16]; // The number of entries in each group
+        final double[][] totals = new double [functions.length][]; // The sum, min or max of each aggregate and group
+        final long[][] numbers = new long [functions.length][]; // The number of numeric cells of each aggregate and group
+        final KeyMap[] distinctValues = new KeyMap [functions.length]; // The id of each value of a distinct aggregate
+        final LongSet[] distinctPairs = new LongSet [functions.length]; // The (group, value id) pairs of a distinct aggregate
+
+
+        Partial ()
+        {
+            for (int a = 0 ; a < functions.length ; a++)
+            {
+                if (functions [a] == DISTINCT)
+                {
+                    distinctValues [a] = new KeyMap (dictionaries [columns [a]]);
+                    distinctPairs [a] = new LongSet ();
+                }
+                else if (functions [a] != COUNT)
+                {
+                    totals [a] = new double [16];
+                    numbers [a] = new long [16];
+                    Arrays.fill (totals [a], empty (a));
+                }
+            }
+        }
+
+
+        // Adds the cells of one selection word to an aggregate, groupOf holds the group of each selected row in order
+        void add (int a, Segment segment, int w, long bits, int[] groupOf)
+        {
+            int category = columns [a], found = 0;
+            long[] numeric = segment.numeric [category];
+            double[] cellNumbers = segment.numbers [category];
+            int[] codes = (dictionaries [category] != null) ? segment.codes [category] : null;
+            String[] values = (dictionaries [category] != null) ? null : segment.values [category];
+
+            for (long rest = bits ; rest != 0 ; rest &= rest - 1)
+            {
+                int offset = (w << 6) + Long.numberOfTrailingZeros (rest);
+                int group = groupOf [found++];
+
+                if (functions [a] == DISTINCT)
+                {
+                    int value = (codes != null) ? distinctValues [a].id (codes [offset]) : (values != null && values [offset] != null) ? distinctValues [a].id (values [offset]) : -1;
+
+                    if (value >= 0)
+                    {
+                        distinctPairs [a].add (((long) group << 32) | value);
+                    }
+                }
+                else if ((numeric [offset >> 6] & (1L << offset)) != 0) // Only numbers count towards sum, min, max and avg
+                {
+                    accumulate (a, group, cellNumbers [offset], 1);
+                }
+            }
+        }
+
+
+        // Adds a number, or a partial sum of several numbers, to an aggregate of a group
+        void accumulate (int a, int group, double number, long count)
+        {
+            switch (functions [a])
+            {
+                case MIN:
+                    totals [a] [group] = Math.min (totals [a] [group], number);
+                    break;
+                case MAX:
+                    totals [a] [group] = Math.max (totals [a] [group], number);
+                    break;
+                default: // Sum and average both keep the sum
+                    totals [a] [group] += number;
+                    break;
+            }
+            numbers [a] [group] += count;
+        }
+
+
+        // Returns the value an aggregate starts from before any number is added
+        double empty (int a)
+        {
+            return (functions [a] == MIN) ? Double.POSITIVE_INFINITY : (functions [a] == MAX) ? Double.NEGATIVE_INFINITY : 0;
+        }
+
+
+        // Turns the groups into a result sorted by group value
+        Result finish ()
+        {
+            int size = groups.size ();
+            Integer[] order = new Integer [size];
+            String[] groupKeys = new String [size];
+            boolean[] isNumber = new boolean [size];
+            double[] keyNumbers = new double [size];
+            String[] keys = new String [size];
+            double[][] values = new double [functions.length][size];
+            long[][] distinct = new long [functions.length][];
+
+            grow ();
+            for (int a = 0 ; a < functions.length ; a++) // Counts the pairs of each group
+            {
+                if (functions [a] == DISTINCT)
+                {
+                    distinct [a] = new long [size];
+                    for (long pair : distinctPairs [a].toArray ())
+                    {
+                        distinct [a] [(int) (pair >>> 32)]++;
+                    }
+                }
+            }
+
+            for (int g = 0 ; g < size ; g++) // Each group value is checked for a number once, not on every comparison
+            {
+                order [g] = g;
+                groupKeys [g] = groups.key (g);
+                isNumber [g] = Table.isNumber (groupKeys [g]);
+                keyNumbers [g] = isNumber [g] ? Double.parseDouble (groupKeys [g]) : 0;
+            }
+            Arrays.sort (order, (g1, g2) -> compareKeys (groupKeys [g1], isNumber [g1], keyNumbers [g1], groupKeys [g2], isNumber [g2], keyNumbers [g2]));
+
+            for (int i = 0 ; i < size ; i++)
+            {
+                int g = order [i];
+
+                keys [i] = groupKeys [g];
+                for (int a = 0 ; a < functions.length ; a++)
+                {
+                    switch (functions [a])
+                    {
+                        case COUNT:
+                            values [a] [i] = counts [g];
+                            break;
+                        case DISTINCT:
+                            values [a] [i] = distinct [a] [g];
+                            break;
+                        case SUM:
+                            values [a] [i] = totals [a] [g];
+                            break;
+                        case AVERAGE:
+                            values [a] [i] = (numbers [a] [g] == 0) ? Double.NaN : totals [a] [g] / numbers [a] [g];
+                            break;
+                        default:
+                            values [a] [i] = (numbers [a] [g] == 0) ? Double.NaN : totals [a] [g];
+                            break;
+                    }
+                }
+            }
+            return new Result (keys, values);
+        }
+
+
+        // Makes room in the group arrays for every group that has an id
+        void grow ()
+        {
+            int size = groups.size ();
+
+            if (size <= counts.length)
+            {
+                return;
+            }
+            size = Math.max (size, counts.length * 2);
+            counts = Arrays.copyOf (counts, size);
+            for (int a = 0 ; a < functions.length ; a++)
+            {
+                if (totals [a] != null)
+                {
+                    int old = totals [a].length;
+
+                    totals [a] = Arrays.copyOf (totals [a], size);
+                    numbers [a] = Arrays.copyOf (numbers [a], size);
+                    Arrays.fill (totals [a], old, size, empty (a));
+                }
+            }
+        }
+
+
+        // Adds the groups and aggregates of another part into this one
+        void merge (Partial other)
+        {
+            int[] ids = new int [other.groups.size ()]; // The id in this part of each group of the other part
+
+            for (int g = 0 ; g < ids.length ; g++)
+            {
+                ids [g] = groups.id (other.groups, g);
+            }
+            grow ();
+            for (int g = 0 ; g < ids.length ; g++)
+            {
+                counts [ids [g]] += other.counts [g];
+                for (int a = 0 ; a < functions.length ; a++)
+                {
+                    if (totals [a] != null && other.numbers [a] [g] > 0)
+                    {
+                        accumulate (a, ids [g], other.totals [a] [g], other.numbers [a] [g]);
+                    }
+                }
+            }
+            for (int a = 0 ; a < functions.length ; a++)
+            {
+                if (distinctPairs [a] != null)
+                {
+                    for (long pair : other.distinctPairs [a].toArray ())
+                    {
+                        int value = distinctValues [a].id (other.distinctValues [a], (int) pair);
+
+                        distinctPairs [a].add (((long) ids [(int) (pair >>> 32)] << 32) | value);
+                    }
+                }
+            }
+        }
+    }
+
+
+    // Compares two group values in sort menu order: numbers first, compared as numbers, then text
+    private static int compareKeys (String key1, boolean isNumber1, double number1, String key2, boolean isNumber2, double number2)
+    {
+        if (isNumber1 && isNumber2)
+        {
+            int result = Double.compare (number1, number2);
+
+            return (result != 0) ? result : key1.compareTo (key2);
+        }
+        if (isNumber1 != isNumber2)
+        {
+            return isNumber1 ? -1 : 1;
+        }
+        return key1.compareTo (key2);
+    }
+
+
+    // Gives each distinct value a dense id, from a dictionary code through a flat array or from a String through open addressing
+    private static class KeyMap
+    {
+        private final ColumnDictionary dictionary; // The dictionary the codes belong to, null if the keys are Strings
+        private int[] codeIds = new int [16]; // id + 1 of each dictionary code, 0 for a code without an id
+        private int[] slots = new int [64]; // id + 1 of the String in each slot, 0 for an empty slot
+        private String[] keys = new String [16]; // The String of each id
+        private int[] codes = new int [16]; // The dictionary code of each id
+        private int size = 0; // The number of ids
+
+
+        KeyMap (ColumnDictionary dictionary)
+        {
+            this.dictionary = dictionary;
+        }
+
+
+        // Returns the id of a dictionary code, the code gets the next id if it is new
+        int id (int code)
+        {
+            if (code >= codeIds.length)
+            {
+                codeIds = Arrays.copyOf (codeIds, Math.max (code + 1, codeIds.length * 2));
+            }
+            if (codeIds [code] == 0)
+            {
+                if (size == codes.length)
+                {
+                    codes = Arrays.copyOf (codes, size * 2);
+                }
+                codes [size] = code;
+                codeIds [code] = ++size;
+            }
+            return codeIds [code] - 1;
+        }
+
+
+        // Returns the id of a String, the String gets the next id if it is new
+        int id (String key)
+        {
+            int mask = slots.length - 1;
+            int slot = mix (key.hashCode ()) & mask;
+
+            while (slots [slot] != 0) // Linear probing until the key or an empty slot is found
+            {
+                if (keys [slots [slot] - 1].equals (key))
+                {
+                    return slots [slot] - 1;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (size == keys.length)
+            {
+                keys = Arrays.copyOf (keys, size * 2);
+            }
+            keys [size] = key;
+            slots [slot] = ++size;
+            if (size * 2 > slots.length) // Keeps the table at most half full
+            {
+                rehash ();
+            }
+            return size - 1;
+        }
+
+
+        // Returns the id in this map of an id of another map over the same category
+        int id (KeyMap other, int id)
+        {
+            return (dictionary != null) ? id (other.codes [id]) : id (other.keys [id]);
+        }
+
+
+        // Returns the value of an id, the code of a cell without a value is N/A
+        String key (int id)
+        {
+            String key = (dictionary != null) ? dictionary.value (codes [id]) : keys [id];
+
+            return (key != null) ? key : MISSING;
+        }
+
+
+        // Returns the number of ids
+        int size ()
+        {
+            return size;
+        }
+
+
+        // Doubles the table of String slots
+        private void rehash ()
+        {
+            int mask = slots.length * 2 - 1;
+
+            slots = new int [slots.length * 2];
+            for (int id = 0 ; id < size ; id++)
+            {
+                int slot = mix (keys [id].hashCode ()) & mask;
+
+                while (slots [slot] != 0)
+                {
+                    slot = (slot + 1) & mask;
+                }
+                slots [slot] = id + 1;
+            }
+        }
+    }
+
+
+    // An open-addressing set of longs that are never negative
+    private static class LongSet
+    {
+        private static final long EMPTY = -1L; // Marks an empty slot
+
+        private long[] slots = newSlots (64); // The values, placed by their hash
+        private int size = 0; // The number of values
+
+
+        // Adds a value if it is not in the set yet
+        void add (long value)
+        {
+            int mask = slots.length - 1;
+            int slot = mix (value) & mask;
+
+            while (slots [slot] != EMPTY)
+            {
+                if (slots [slot] == value)
+                {
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            slots [slot] = value;
+            if (++size * 2 > slots.length)
+            {
+                long[] old = slots;
+
+                slots = newSlots (old.length * 2);
+                size = 0;
+                for (long v : old)
+                {
+                    if (v != EMPTY)
+                    {
+                        add (v);
+                    }
+                }
+            }
+        }
+
+
+        // Returns the values of the set in no particular order
+        long[] toArray ()
+        {
+            long[] values = new long [size];
+            int next = 0;
+
+            for (long v : slots)
+            {
+                if (v != EMPTY)
+                {
+                    values [next++] = v;
+                }
+            }
+            return values;
+        }
+
+
+        // Returns a table of empty slots
+        private static long[] newSlots (int length)
+        {
+            long[] slots = new long [length];
+
+            Arrays.fill (slots, EMPTY);
+            return slots;
+        }
+    }
+
+
+    // Spreads the bits of a hash code so that nearby values land in different slots
+    private static int mix (int hash)
+    {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+
+    // Spreads the bits of a long over an int, the group and the value of a pair both change every bit
+    private static int mix (long value)
+    {
+        value *= 0x9E3779B97F4A7C15L;
+        return (int) (value >>> 32) ^ (int) value;
+    }
+}
@@ -0,0 +1,101 @@
+/*--------------------------------------------------------------------------------------*/
+/*                                                                                      */
+/*  HashIndex.java - An index over one category of a Table for exact-match searches.    */
+/*                                                                                      */
+/*                   Values are folded to a single case (so the index matches the same  */
+/*                   entries as equalsIgnoreCase) and mapped to the list of row ids     */
+/*                   that hold them. The Table keeps the index up to date as entries    */
+/*                   are added, changed and removed.                                    */
+/*                                                                                      */
+/*--------------------------------------------------------------------------------------*/
+
+import java.util.*;
+
+class HashIndex
+{
+    private final HashMap<String, IntList> postings = new HashMap<String, IntList> (); // The row ids of every folded value
+
+
+    // Builds the index over one category of a table
+    HashIndex (Table table, int column)
+    {
+        for (int row = 0 ; row < table.size () ; row++)
+        {
+            add (table.get (column, row), row);
+        }
+    }
+
+
+    // Adds an entry's value to the index
+    void add (String value, int row)
+    {
+        if (value != null) // Cleared cells are not indexed
+        {
+            String key = fold (value);
+            IntList rows = postings.get (key);
+
+            if (rows == null) // The first entry that holds this value
+            {
+                rows = new IntList ();
+                postings.put (key, rows);
+            }
+            rows.add (row);
+        }
+    }
+
+
+    // Removes every value from the index
+    void clear ()
+    {
+        postings.clear ();
+    }
+
+
+    // Returns the row ids of the entries that hold the value, ignoring case, in ascending order
+    // The row ids are copied, as the index keeps changing its own lists when entries change
+    int[] find (String value)
+    {
+        IntList rows = postings.get (fold (value));
+
+        return (rows == null) ? new int [0] : rows.toArray ();
+    }
+
+
+    // Removes an entry's value from the index
+    void remove (String value, int row)
+    {
+        if (value != null)
+        {
+            String key = fold (value);
+            IntList rows = postings.get (key);
+
+            if (rows != null && rows.remove (row) && rows.size () == 0) // Drops values that no entry holds anymore
+            {
+                postings.remove (key);
+            }
+        }
+    }
+
+
+    // Updates the row ids after entries were removed from the table and the following entries moved up, see IntList.shiftDown
+    void removeRows (long[] removed, int[] before)
+    {
+        for (IntList rows : postings.values ())
+        {
+            rows.shiftDown (removed, before);
+        }
+    }
+
+
+    // Folds a value to a single case the same way equalsIgnoreCase compares characters
+    static String fold (String value)
+    {
+        char[] chars = value.toCharArray ();
+
+        for (int i = 0 ; i < chars.length ; i++)
+        {
+            chars [i] = Character.toLowerCase (Character.toUpperCase (chars [i]));
+        }
+        return new String (chars);
+    }
+}
@@ -0,0 +1,118 @@
+/*--------------------------------------------------------------------------------------*/
+/*                                                                                      */
+/*  IntList.java - A growable list of ints kept in ascending order, used to hold the    */
+/*                 row ids of entries (for example the entries that match a search).    */
+/*                                                                                      */
+/*--------------------------------------------------------------------------------------*/
+
+import java.util.*;
+
+class IntList
+{
+    private int[] values; // The row ids in ascending order
+    private int size = 0; // The number of row ids in the list
+
+
+    // Creates an empty list
+    IntList ()
+    {
+        values = new int [4];
+    }
+
+
+    // Creates an empty list with room for the given number of row ids
+    IntList (int capacity)
+    {
+        values = new int [Math.max (capacity, 4)];
+    }
+
+
+    // Adds a row id, row ids larger than the last one are appended without searching
+    void add (int value)
+    {
+        int position; // Where the row id belongs in the list
+
+        if (size == 0 || values [size - 1] < value) // The common case when rows are added in order
+        {
+            position = size;
+        }
+        else
+        {
+            position = Arrays.binarySearch (values, 0, size, value);
+            if (position >= 0) // The row id is already in the list
+            {
+                return;
+            }
+            position = -position - 1;
+        }
+
+        if (size == values.length) // Grows the array when it is full
+        {
+            values = Arrays.copyOf (values, size * 2);
+        }
+        System.arraycopy (values, position, values, position + 1, size - position);
+        values [position] = value;
+        size++;
+    }
+
+
+    // Returns true if the list holds the row id
+    boolean contains (int value)
+    {
+        return Arrays.binarySearch (values, 0, size, value) >= 0;
+    }
+
+
+    // Returns the row id at a position in the list
+    int get (int index)
+    {
+        if (index < 0 || index >= size)
+        {
+            throw new IndexOutOfBoundsException ("Index " + index + " is outside the list of " + size + " row ids");
+        }
+        return values [index];
+    }
+
+
+    // Removes a row id from the list, returns false if it was not in the list
+    boolean remove (int value)
+    {
+        int position = Arrays.binarySearch (values, 0, size, value); // Where the row id is in the list
+
+        if (position < 0)
+        {
+            return false;
+        }
+        System.arraycopy (values, position + 1, values, position, size - position - 1);
+        size--;
+        return true;
+    }
+
+
+    // Moves every row id down by the number of removed rows below it, used after entries are removed from the table
+    // removed is a bitmap of the removed row ids and before [w] the number of removed rows below word w of it,
+    // the removed row ids themselves must no longer be in the list
+    void shiftDown (long[] removed, int[] before)
+    {
+        for (int i = 0 ; i < size ; i++)
+        {
+            int row = values [i];
+
+            values [i] = row - before [row >> 6] - Long.bitCount (removed [row >> 6] & ((1L << row) - 1)); // Only the bits below the row are counted
+        }
+    }
+
+
+    // Returns the number of row ids in the list
+    int size ()
+    {
+        return size;
+    }
+
+
+    // Returns the row ids as an array
+    int[] toArray ()
+    {
+        return Arrays.copyOf (values, size);
+    }
+}
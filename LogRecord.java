@@ -0,0 +1,89 @@
+/*--------------------------------------------------------------------------------------*/
+/*                                                                                      */
+/*  LogRecord.java - A record of an append-only log, shared by WriteAheadLog and        */
+/*                   Catalog.                                                           */
+/*                                                                                      */
+/*                   A record starts with its type and is written to a buffer, then     */
+/*                   added to a log as [length][CRC32][payload]. Reading a log stops    */
+/*                   at the first record that is cut short or fails its check, since a  */
+/*                   record that was only partly written when the program stopped can   */
+/*                   only be the last one.                                              */
+/*                                                                                      */
+/*--------------------------------------------------------------------------------------*/
+
+import java.io.*;
+import java.util.zip.*;
+
+class LogRecord extends DataOutputStream
+{
+    static final int FRAME_SIZE = 4 + 4; // The length and CRC32 written before each payload
+
+    final ByteArrayOutputStream buffer; // The buffer holding the record
+
+
+    // Applies one record that was read from a log
+    interface Handler
+    {
+        void apply (DataInputStream record) throws IOException;
+    }
+
+
+    private LogRecord (ByteArrayOutputStream buffer)
+    {
+        super (buffer);
+        this.buffer = buffer;
+    }
+
+
+    // Adds the finished record to a log with its length and CRC32, returns the number of bytes written
+    int frame (OutputStream log) throws IOException
+    {
+        byte[] payload = buffer.toByteArray ();
+        CRC32 crc = new CRC32 ();
+        DataOutputStream frame = new DataOutputStream (log);
+
+        crc.update (payload);
+        frame.writeInt (payload.length);
+        frame.writeInt ((int) crc.getValue ());
+        frame.write (payload);
+        return FRAME_SIZE + payload.length;
+    }
+
+
+    // Reads the records of a log from position up to size and hands each payload to the handler
+    // Returns the end of the last complete record, reading stops at the first damaged record
+    static long read (DataInputStream in, long position, long size, Handler handler) throws IOException
+    {
+        while (position + FRAME_SIZE <= size)
+        {
+            int length = in.readInt (), checksum = in.readInt ();
+            byte[] payload;
+            CRC32 crc = new CRC32 ();
+
+            if (length <= 0 || position + FRAME_SIZE + length > size) // The last record was only partly written
+            {
+                break;
+            }
+            payload = new byte [length];
+            in.readFully (payload);
+            crc.update (payload);
+            if ((int) crc.getValue () != checksum)
+            {
+                break;
+            }
+            handler.apply (new DataInputStream (new ByteArrayInputStream (payload)));
+            position += FRAME_SIZE + length;
+        }
+        return position;
+    }
+
+
+    // Starts a new record of the given type
+    static LogRecord start (byte type) throws IOException
+    {
+        LogRecord record = new LogRecord (new ByteArrayOutputStream ());
+
+        record.writeByte (type);
+        return record;
+    }
+}
@@ -0,0 +1,173 @@
+/*--------------------------------------------------------------------------------------*/
+/*                                                                                      */
+/*  MappedFile.java - Reads a large .ssf database file through a memory map instead of  */
+/*                    reading every line into a String when the database is opened.     */
+/*                                                                                      */
+/*                    Opening the file is a single scan for line breaks that records    */
+/*                    where each entry starts. The bytes of a category value are only   */
+/*                    decoded into a String when the Table first uses the value, so     */
+/*                    opening takes the time of the scan and the memory used grows      */
+/*                    with the values that are used, not with the size of the file.     */
+/*                                                                                      */
+/*                    The file is mapped in chunks because a single map cannot be       */
+/*                    larger than 2 GB. Lines are read the way BufferedReader reads     */
+/*                    them: a line ends at \n, \r or \r\n, and the entries end at the   */
+/*                    first blank line or at the end of the file.                       */
+/*                                                                                      */
+/*--------------------------------------------------------------------------------------*/
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.util.*;
+
+class MappedFile
+{
+    static final long MIN_SIZE = 1 << 20; // Files smaller than 1 MB are read line by line, mapping them saves nothing
+    static final int CHUNK_BITS = 30; // Each chunk of the map holds 2^30 bytes
+    static final long CHUNK_MASK = (1L << CHUNK_BITS) - 1; // Mask that finds the position of a byte inside its chunk
+
+    private final MappedByteBuffer[] chunks; // The mapped contents of the file
+    private final long length; // The length of the file in bytes
+    private final Charset charset = Charset.defaultCharset (); // The same charset FileReader uses
+    private final int lines; // The number of lines in each entry, and the number of title lines
+    private long[] rowStarts = new long [1024]; // The position of the first line of each entry
+    private int rows = 0; // The number of entries in the file
+    private final String[] titles; // The category titles from the first lines of the file
+
+
+    // Maps a database file and finds where each entry starts
+    MappedFile (String fileName, int lines) throws IOException
+    {
+        FileChannel channel = FileChannel.open (new File (fileName).toPath ());
+        long position = 0; // The start of the line that is being scanned
+
+        this.lines = lines;
+        try
+        {
+            length = channel.size ();
+            chunks = new MappedByteBuffer [(int) ((length + CHUNK_MASK) >> CHUNK_BITS)];
+            for (int i = 0 ; i < chunks.length ; i++) // The map stays valid after the channel is closed
+            {
+                long start = (long) i << CHUNK_BITS;
+                chunks [i] = channel.map (FileChannel.MapMode.READ_ONLY, start, Math.min (CHUNK_MASK + 1, length - start));
+            }
+        }
+        finally
+        {
+            channel.close ();
+        }
+
+        titles = new String [lines];
+        for (int i = 0 ; i < lines ; i++) // The first lines are the category titles
+        {
+            titles [i] = (position < length) ? decode (position) : null;
+            position = nextLine (position);
+        }
+
+        while (position < length && !isBlank (position)) // Keeps scanning until a blank line or the end of the file
+        {
+            if (rows == rowStarts.length)
+            {
+                rowStarts = Arrays.copyOf (rowStarts, rows * 2);
+            }
+            rowStarts [rows++] = position;
+            for (int i = 0 ; i < lines ; i++) // Skips over the lines of the entry
+            {
+                position = nextLine (position);
+            }
+        }
+    }
+
+
+    // Returns a category value of an entry, decoded from the file, or null if the file ended in the middle of the entry
+    String get (int column, int row)
+    {
+        long position = rowStarts [row];
+
+        for (int i = 0 ; i < column ; i++) // The values are short, so finding the line by skipping is cheap
+        {
+            position = nextLine (position);
+        }
+        return (position < length) ? decode (position) : null;
+    }
+
+
+    // Returns the number of entries in the file
+    int rows ()
+    {
+        return rows;
+    }
+
+
+    // Returns a copy of the category titles
+    String[] titles ()
+    {
+        return titles.clone ();
+    }
+
+
+    // Returns the byte at a position in the file
+    private byte byteAt (long position)
+    {
+        return chunks [(int) (position >> CHUNK_BITS)].get ((int) (position & CHUNK_MASK));
+    }
+
+
+    // Decodes the line that starts at a position
+    private String decode (long position)
+    {
+        long end = position;
+        byte[] bytes;
+
+        while (end < length && byteAt (end) != '\n' && byteAt (end) != '\r')
+        {
+            end++;
+        }
+        bytes = new byte [(int) (end - position)];
+        for (int i = 0 ; i < bytes.length ; i++)
+        {
+            bytes [i] = byteAt (position + i);
+        }
+        return new String (bytes, charset);
+    }
+
+
+    // Returns true if the line that starts at a position is empty after trim, which ends the entries
+    private boolean isBlank (long position)
+    {
+        for (long p = position ; p < length && byteAt (p) != '\n' && byteAt (p) != '\r' ; p++)
+        {
+            if ((byteAt (p) & 0xff) > ' ') // Bytes of characters that trim does not remove, including every byte of a multi-byte character
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    // Returns the position of the line after the line that starts at a position
+    private long nextLine (long position)
+    {
+        while (position < length)
+        {
+            byte b = byteAt (position++);
+
+            if (b == '\n')
+            {
+                break;
+            }
+            if (b == '\r') // A \r\n pair counts as one line break
+            {
+                if (position < length && byteAt (position) == '\n')
+                {
+                    position++;
+                }
+                break;
+            }
+        }
+        return position;
+    }
+}
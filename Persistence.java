@@ -0,0 +1,115 @@
+/*--------------------------------------------------------------------------------------*/
+/*                                                                                      */
+/*  Persistence.java - Writes whole files so that a crash can never leave a partly      */
+/*                     written database or namespasswords.ssf behind.                   */
+/*                                                                                      */
+/*                     The contents are written in one sequential pass to a temporary   */
+/*                     file in the same folder, which is synced to disk and then moved  */
+/*                     over the real file with an atomic rename. Readers see either the */
+/*                     old file or the new file, never a mix. The folder is synced      */
+/*                     after the rename so the new name survives a power loss too.      */
+/*                                                                                      */
+/*--------------------------------------------------------------------------------------*/
+
+import java.io.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+
+class Persistence
+{
+    static final String TEMP_SUFFIX = ".tmp"; // Added to the file name while the new contents are being written
+    static final int BUFFER_SIZE = 1 << 16; // The contents are written in blocks of 64 KB
+
+
+    // Writes the contents of a file through a BufferedWriter
+    interface Contents
+    {
+        void write (BufferedWriter writer) throws IOException;
+    }
+
+
+    // Writes the contents of a file as bytes
+    interface BinaryContents
+    {
+        void write (OutputStream out) throws IOException;
+    }
+
+
+    // Replaces a file with new bytes, the file is either fully replaced or left as it was
+    static void writeBinaryFile (String fileName, BinaryContents contents) throws IOException
+    {
+        Path target = Paths.get (fileName).toAbsolutePath ();
+        Path temp = target.resolveSibling (target.getFileName () + TEMP_SUFFIX); // Same folder, so the rename never has to copy
+        boolean moved = false;
+
+        try
+        {
+            FileOutputStream out = new FileOutputStream (temp.toFile ());
+
+            try
+            {
+                BufferedOutputStream buffered = new BufferedOutputStream (out, BUFFER_SIZE);
+
+                contents.write (buffered);
+                buffered.flush (); // Everything has to reach the file before it is synced
+                out.getFD ().sync (); // The contents are on disk before the file takes the real name
+            }
+            finally
+            {
+                out.close ();
+            }
+
+            try
+            {
+                Files.move (temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+            catch (AtomicMoveNotSupportedException e) // Some file systems cannot rename atomically, the file is still fully written first
+            {
+                Files.move (temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            moved = true;
+            syncFolder (target.getParent ());
+        }
+        finally
+        {
+            if (!moved) // Removes the unfinished temporary file, the real file was not touched
+            {
+                Files.deleteIfExists (temp);
+            }
+        }
+    }
+
+
+    // Replaces a file with new text, the file is either fully replaced or left as it was
+    static void writeFile (String fileName, Contents contents) throws IOException
+    {
+        writeBinaryFile (fileName, out -> {
+            BufferedWriter writer = new BufferedWriter (new OutputStreamWriter (out), BUFFER_SIZE);
+
+            contents.write (writer);
+            writer.flush ();
+        });
+    }
+
+
+    // Syncs a folder so that a rename inside it is on disk
+    private static void syncFolder (Path folder)
+    {
+        try
+        {
+            FileChannel channel = FileChannel.open (folder, StandardOpenOption.READ);
+
+            try
+            {
+                channel.force (true);
+            }
+            finally
+            {
+                channel.close ();
+            }
+        }
+        catch (IOException e) // Some systems (like Windows) cannot open a folder, the rename is still atomic there
+        {
+        }
+    }
+}
@@ -0,0 +1,548 @@
+/*--------------------------------------------------------------------------------------*/
+/*                                                                                      */
+/*  Query.java - A small query language that searches several categories at once, for   */
+/*               example:                                                               */
+/*                                                                                      */
+/*                 WHERE c3 > 40 AND c1 = 'Fingerling' ORDER BY c4 DESC LIMIT 10        */
+/*                                                                                      */
+/*               Every part is optional, an empty query selects every entry. A          */
+/*               category is written as c1 to c5 or as its title (in double quotes if   */
+/*               the title has spaces). A value is a number, a word, or text in single  */
+/*               quotes ('' is a quote inside quotes). Keywords can be in any case.     */
+/*                                                                                      */
+/*               Conditions:                                                            */
+/*                 =  !=        matches the value ignoring case, like the exact search  */
+/*                 < <= > >=    compares numbers with numbers and text with text, so    */
+/*                              c3 > 40 only matches the entries where c3 is a number   */
+/*                 STARTS WITH  matches values starting with the text (case sensitive)  */
+/*                                                                                      */
+/*               A query is parsed into a list of conditions, an order and a limit      */
+/*               (the logical plan). The planner then picks how to find the entries:    */
+/*               one condition that an existing exact-match or sorted index can answer  */
+/*               gives the first candidates, and the other conditions are checked on    */
+/*               those candidates. Without a usable index each condition is scanned     */
+/*               over its whole category with the ColumnScan kernels and the selections */
+/*               are combined. A LIMIT without ORDER BY keeps only the first entries    */
+/*               that are found, and ORDER BY with a LIMIT keeps the first entries in   */
+/*               a bounded heap instead of sorting every match.                         */
+/*                                                                                      */
+/*--------------------------------------------------------------------------------------*/
+
+import java.util.*;
+
+class Query
+{
+    static final int EQUAL = 0; // Condition operators, in the order of OPERATORS
+    static final int NOT_EQUAL = 1;
+    static final int LESS = 2;
+    static final int LESS_EQUAL = 3;
+    static final int GREATER = 4;
+    static final int GREATER_EQUAL = 5;
+    static final int STARTS_WITH = 6;
+    static final String[] OPERATORS = {"=", "!=", "<", "<=", ">", ">=", "STARTS WITH"}; // How each operator is written
+
+    private final List<Condition> conditions; // The conditions of the WHERE part, all of them must match
+    private final int orderColumn; // The category of the ORDER BY part, -1 to keep the entries in database order
+    private final boolean descending; // True if the entries are ordered from largest to smallest
+    private final int limit; // The most entries to return, -1 for no limit
+
+
+    // One condition of the WHERE part
+    static class Condition implements ColumnScan.CellTest
+    {
+        final int column; // The category that is compared
+        final int operator; // One of the operator constants
+        final String value; // The value the category is compared with
+        final boolean numeric; // True if the value is a number
+        final double number; // The parsed number of a numeric value
+
+
+        Condition (int column, int operator, String value)
+        {
+            this.column = column;
+            this.operator = operator;
+            this.value = value;
+            this.numeric = Table.isNumber (value);
+            this.number = numeric ? Double.parseDouble (value) : 0;
+        }
+
+
+        // Returns true if an entry meets the condition, cleared cells never do
+        boolean matches (Table table, int row)
+        {
+            String cell = table.get (column, row);
+
+            return cell != null && matches (cell, table.isNumeric (column, row), table.number (column, row));
+        }
+
+
+        // Returns true if a cell value, with its parsed number, meets the condition
+        public boolean matches (String cell, boolean isNumber, double cellNumber)
+        {
+            int result; // The comparison of the cell with the value
+
+            switch (operator)
+            {
+                case EQUAL: // The same match the exact search and HashIndex make
+                    return cell.equalsIgnoreCase (value);
+                case NOT_EQUAL:
+                    return !cell.equalsIgnoreCase (value);
+                case STARTS_WITH:
+                    return cell.startsWith (value);
+            }
+
+            if (numeric != isNumber) // Numbers are only compared with numbers and text with text
+            {
+                return false;
+            }
+            result = numeric ? Double.compare (cellNumber, number) : cell.compareTo (value);
+            switch (operator)
+            {
+                case LESS:
+                    return result < 0;
+                case LESS_EQUAL:
+                    return result <= 0;
+                case GREATER:
+                    return result > 0;
+                default:
+                    return result >= 0;
+            }
+        }
+
+
+        // Selects the entries that meet the condition with a ColumnScan kernel over the whole category
+        long[] scan (Table table)
+        {
+            ColumnDictionary dictionary;
+
+            table.decodeColumn (column); // Decoding can still switch the category away from its dictionary, so it comes first
+            dictionary = table.dictionary (column);
+            if (numeric && operator >= LESS && operator <= GREATER_EQUAL) // Compares the parsed numbers, however the text is stored
+            {
+                return ColumnScan.compare (table, column, operator, number);
+            }
+            if (dictionary != null) // Each distinct value is tested once and the rows are matched by their code
+            {
+                boolean[] matches = new boolean [dictionary.size ()];
+
+                for (int code = 0 ; code < matches.length ; code++)
+                {
+                    matches [code] = dictionary.value (code) != null && matches (dictionary.value (code), dictionary.isNumeric (code), dictionary.number (code));
+                }
+                return ColumnScan.matchCodes (table, column, matches);
+            }
+            return ColumnScan.matchValues (table, column, this);
+        }
+
+
+        // Writes the condition the way it is typed
+        public String toString ()
+        {
+            return "c" + (column + 1) + " " + OPERATORS [operator] + " " + (numeric ? value : "'" + value.replace ("'", "''") + "'");
+        }
+    }
+
+
+    private Query (List<Condition> conditions, int orderColumn, boolean descending, int limit)
+    {
+        this.conditions = conditions;
+        this.orderColumn = orderColumn;
+        this.descending = descending;
+        this.limit = limit;
+    }
+
+
+    // Returns a description of how the query will be run against a table
+    String explain (Table table)
+    {
+        StringBuilder plan = new StringBuilder ();
+        StringBuilder checks = new StringBuilder (); // The conditions that are checked entry by entry
+        int access = choose (table);
+
+        for (int i = 0 ; i < conditions.size () ; i++)
+        {
+            if (i != access)
+            {
+                checks.append ((checks.length () == 0) ? "" : " and ").append (conditions.get (i));
+            }
+        }
+        if (access < 0)
+        {
+            plan.append ("scan every entry");
+            if (checks.length () > 0)
+            {
+                plan.append (" for ").append (checks);
+            }
+        }
+        else
+        {
+            Condition condition = conditions.get (access);
+            String index = (condition.operator == EQUAL) ? "exact-match index" : "sorted index";
+
+            plan.append ("look up ").append (condition).append (" in the ").append (index).append (" of c").append (condition.column + 1);
+            if (checks.length () > 0)
+            {
+                plan.append (", then check the candidates for ").append (checks);
+            }
+        }
+        if (orderColumn >= 0 && limit >= 0)
+        {
+            plan.append (", keep the first ").append (limit).append (limit == 1 ? " entry" : " entries").append (" by c").append (orderColumn + 1);
+            plan.append (descending ? " descending" : " ascending").append (" in a bounded heap");
+        }
+        else if (orderColumn >= 0)
+        {
+            plan.append (", sort by c").append (orderColumn + 1).append (descending ? " descending" : " ascending");
+        }
+        else if (limit >= 0)
+        {
+            plan.append (", stop after ").append (limit).append (limit == 1 ? " entry" : " entries");
+        }
+        return plan.toString ();
+    }
+
+
+    // Runs the query and returns the row ids of the matching entries, in database order or in the order of ORDER BY
+    int[] execute (Table table)
+    {
+        int access = choose (table); // The condition answered by an index, -1 to scan the categories
+        int first = (orderColumn < 0) ? limit : -1; // Without an order the first matches are the answer
+        int[] rows;
+
+        if (access < 0) // Each condition is scanned column by column and the selections are combined
+        {
+            long[] selection = conditions.isEmpty () ? ColumnScan.all (table) : conditions.get (0).scan (table);
+            boolean any = true;
+
+            for (int c = 1 ; c < conditions.size () && any ; c++) // Stops scanning once no entry is left
+            {
+                any = ColumnScan.and (selection, conditions.get (c).scan (table));
+            }
+            rows = ColumnScan.rows (selection, first);
+        }
+        else // The few candidates of the index are checked one by one
+        {
+            int[] candidates = candidates (table, conditions.get (access));
+            IntList found = new IntList ();
+
+            for (int i = 0 ; i < candidates.length && (first < 0 || found.size () < first) ; i++)
+            {
+                boolean matches = true;
+
+                for (int c = 0 ; c < conditions.size () && matches ; c++)
+                {
+                    matches = conditions.get (c).matches (table, candidates [i]);
+                }
+                if (matches)
+                {
+                    found.add (candidates [i]);
+                }
+            }
+            rows = found.toArray ();
+        }
+
+        if (orderColumn >= 0 && limit >= 0 && limit < rows.length) // Only the first entries are needed, so they are kept in a bounded heap instead of sorting every match
+        {
+            rows = TableSort.top (table, rows, TableSort.priority (orderColumn, table.columnCount ()), descending, -1, limit);
+        }
+        else if (orderColumn >= 0) // Ties are ordered by the other categories, the same way the sort menu orders them
+        {
+            TableSort.sortRows (table, rows, TableSort.priority (orderColumn, table.columnCount ()), descending);
+        }
+        if (limit >= 0 && rows.length > limit)
+        {
+            rows = Arrays.copyOf (rows, limit);
+        }
+        return rows;
+    }
+
+
+    // Reads a query, the titles let categories be named by their title as well as c1 to c5
+    static Query parse (String text, String[] titles)
+    {
+        List<Token> tokens = tokenize (text);
+        List<Condition> conditions = new ArrayList<Condition> ();
+        int[] next = {0}; // The position of the next token, shared with the helper methods
+        int orderColumn = -1, limit = -1;
+        boolean descending = false;
+
+        if (isKeyword (tokens, next, "WHERE"))
+        {
+            do
+            {
+                int column = column (tokens, next, titles);
+                int operator = operator (tokens, next);
+
+                conditions.add (new Condition (column, operator, value (tokens, next)));
+            }
+            while (isKeyword (tokens, next, "AND"));
+        }
+        if (isKeyword (tokens, next, "ORDER"))
+        {
+            if (!isKeyword (tokens, next, "BY"))
+            {
+                throw error (tokens, next [0], "BY after ORDER");
+            }
+            orderColumn = column (tokens, next, titles);
+            if (isKeyword (tokens, next, "DESC"))
+            {
+                descending = true;
+            }
+            else
+            {
+                isKeyword (tokens, next, "ASC");
+            }
+        }
+        if (isKeyword (tokens, next, "LIMIT"))
+        {
+            if (next [0] == tokens.size () || !tokens.get (next [0]).text.matches ("[0-9]{1,9}"))
+            {
+                throw error (tokens, next [0], "a number of entries after LIMIT");
+            }
+            limit = Integer.parseInt (tokens.get (next [0]++).text);
+        }
+        if (next [0] < tokens.size ())
+        {
+            throw error (tokens, next [0], (conditions.isEmpty () && orderColumn < 0 && limit < 0) ? "WHERE, ORDER BY or LIMIT" : "AND, ORDER BY, LIMIT or the end of the query");
+        }
+        return new Query (conditions, orderColumn, descending, limit);
+    }
+
+
+    // Returns the condition the planner answers with an index, or -1 if the entries have to be checked one by one
+    // An exact match is the most selective and cheapest lookup, then a prefix, then a range
+    private int choose (Table table)
+    {
+        int best = -1, bestRank = Integer.MAX_VALUE;
+
+        for (int i = 0 ; i < conditions.size () ; i++)
+        {
+            Condition condition = conditions.get (i);
+            int rank = Integer.MAX_VALUE;
+
+            if (condition.operator == EQUAL && table.hasHashIndex (condition.column)) // A category with a dictionary is faster to scan by its codes
+            {
+                rank = 0;
+            }
+            else if (condition.operator == STARTS_WITH && table.hasSortedIndex (condition.column))
+            {
+                rank = 1;
+            }
+            else if (condition.operator >= LESS && condition.operator <= GREATER_EQUAL && table.hasSortedIndex (condition.column))
+            {
+                rank = 2;
+            }
+            if (rank < bestRank)
+            {
+                best = i;
+                bestRank = rank;
+            }
+        }
+        return best;
+    }
+
+
+    // Looks up the entries that can meet a condition in an index, returns them in database order
+    // A range lookup can return a few entries that do not meet the condition (text next to numbers, or the bound itself), they are removed when the conditions are checked
+    private static int[] candidates (Table table, Condition condition)
+    {
+        int[] rows;
+
+        switch (condition.operator)
+        {
+            case EQUAL:
+                return table.find (condition.column, condition.value); // Already in database order
+            case STARTS_WITH:
+                rows = table.prefix (condition.column, condition.value);
+                break;
+            case LESS:
+            case LESS_EQUAL:
+                rows = table.range (condition.column, null, condition.value);
+                break;
+            default:
+                rows = table.range (condition.column, condition.value, null);
+                break;
+        }
+        Arrays.sort (rows); // The index returns the entries in value order
+        return rows;
+    }
+
+
+    // Reads a category, written as c1 to c5 or as its title
+    private static int column (List<Token> tokens, int[] next, String[] titles)
+    {
+        Token token;
+
+        if (next [0] == tokens.size ())
+        {
+            throw error (tokens, next [0], "a category");
+        }
+        token = tokens.get (next [0]);
+        if (!token.quoted && token.text.matches ("[cC][0-9]+"))
+        {
+            int column = Integer.parseInt (token.text.substring (1)) - 1;
+
+            if (column >= 0 && column < titles.length)
+            {
+                next [0]++;
+                return column;
+            }
+        }
+        if (token.quote != '\'') // A title can be a word or in double quotes, but not in single quotes
+        {
+            for (int c = 0 ; c < titles.length ; c++)
+            {
+                if (titles [c] != null && titles [c].equalsIgnoreCase (token.text))
+                {
+                    next [0]++;
+                    return c;
+                }
+            }
+        }
+        throw error (tokens, next [0], "a category (c1 to c" + titles.length + " or a category title)");
+    }
+
+
+    // Returns an error that says what was expected at a token
+    private static IllegalArgumentException error (List<Token> tokens, int position, String expected)
+    {
+        return new IllegalArgumentException ("Expected " + expected + " but found " + ((position == tokens.size ()) ? "the end of the query" : "\"" + tokens.get (position).text + "\""));
+    }
+
+
+    // Moves past the next token if it is the keyword, returns false and stays put if it is not
+    private static boolean isKeyword (List<Token> tokens, int[] next, String keyword)
+    {
+        if (next [0] < tokens.size () && !tokens.get (next [0]).quoted && tokens.get (next [0]).text.equalsIgnoreCase (keyword))
+        {
+            next [0]++;
+            return true;
+        }
+        return false;
+    }
+
+
+    // Reads a condition operator
+    private static int operator (List<Token> tokens, int[] next)
+    {
+        if (isKeyword (tokens, next, "STARTS"))
+        {
+            if (!isKeyword (tokens, next, "WITH"))
+            {
+                throw error (tokens, next [0], "WITH after STARTS");
+            }
+            return STARTS_WITH;
+        }
+        if (next [0] < tokens.size () && !tokens.get (next [0]).quoted)
+        {
+            String text = tokens.get (next [0]).text;
+
+            for (int i = 0 ; i < STARTS_WITH ; i++)
+            {
+                if (OPERATORS [i].equals (text) || (i == NOT_EQUAL && text.equals ("<>")))
+                {
+                    next [0]++;
+                    return i;
+                }
+            }
+        }
+        throw error (tokens, next [0], "=, !=, <, <=, >, >= or STARTS WITH");
+    }
+
+
+    // Reads a value, a word or text in single quotes
+    private static String value (List<Token> tokens, int[] next)
+    {
+        Token token;
+
+        if (next [0] == tokens.size () || (!tokens.get (next [0]).quoted && "=!<>".indexOf (tokens.get (next [0]).text.charAt (0)) >= 0))
+        {
+            throw error (tokens, next [0], "a value");
+        }
+        token = tokens.get (next [0]++);
+        if (token.quote == '"')
+        {
+            throw new IllegalArgumentException ("Values are written in single quotes, \"" + token.text + "\" is in double quotes");
+        }
+        return token.text;
+    }
+
+
+    // A word, an operator or a quoted text of a query
+    private static class Token
+    {
+        final String text; // The token without its quotes
+        final boolean quoted; // True if the token was written in quotes
+        final char quote; // The quote character, or 0 if the token was not quoted
+
+
+        Token (String text, char quote)
+        {
+            this.text = text;
+            this.quote = quote;
+            this.quoted = (quote != 0);
+        }
+    }
+
+
+    // Splits a query into words, operators and quoted texts
+    private static List<Token> tokenize (String text)
+    {
+        List<Token> tokens = new ArrayList<Token> ();
+        int i = 0;
+
+        while (i < text.length ())
+        {
+            char c = text.charAt (i);
+
+            if (Character.isWhitespace (c))
+            {
+                i++;
+            }
+            else if (c == '\'' || c == '"') // Quoted text ends at the next single quote, two quotes stand for one
+            {
+                StringBuilder quoted = new StringBuilder ();
+
+                for (i++ ; ; i++)
+                {
+                    if (i == text.length ())
+                    {
+                        throw new IllegalArgumentException ("A quote is not closed");
+                    }
+                    if (text.charAt (i) == c)
+                    {
+                        if (i + 1 < text.length () && text.charAt (i + 1) == c)
+                        {
+                            i++;
+                        }
+                        else
+                        {
+                            break;
+                        }
+                    }
+                    quoted.append (text.charAt (i));
+                }
+                tokens.add (new Token (quoted.toString (), c));
+                i++;
+            }
+            else if ("=!<>".indexOf (c) >= 0) // Operators of one or two characters
+            {
+                int end = (i + 1 < text.length () && "=>".indexOf (text.charAt (i + 1)) >= 0 && c != '=' && !(c == '>' && text.charAt (i + 1) == '>')) ? i + 2 : i + 1;
+
+                tokens.add (new Token (text.substring (i, end), (char) 0));
+                i = end;
+            }
+            else
+            {
+                int start = i;
+
+                while (i < text.length () && !Character.isWhitespace (text.charAt (i)) && "=!<>'\"".indexOf (text.charAt (i)) < 0)
+                {
+                    i++;
+                }
+                tokens.add (new Token (text.substring (start, i), (char) 0));
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,242 @@
+/*--------------------------------------------------------------------------------------*/
+/*                                                                                      */
+/*  Segment.java - A fixed-size block of rows inside a Table. Every segment holds the   */
+/*                 same number of rows (Table.SEGMENT_SIZE) and stores each category    */
+/*                 in its own array so that scanning one category stays sequential.     */
+/*                                                                                      */
+/*                 Next to the String values, a segment keeps a bitmap of which cells   */
+/*                 are numbers and the parsed double value of those cells.              */
+/*                                                                                      */
+/*                 A category with a ColumnDictionary stores an int code for each row   */
+/*                 instead of the String, the arrays of a category are only allocated   */
+/*                 once a value of that kind is stored.                                 */
+/*                                                                                      */
+/*                 Segments of a table opened from a MappedFile also keep a bitmap of   */
+/*                 the cells that are still only in the file, together with the entry   */
+/*                 of the file that each row comes from.                                */
+/*                                                                                      */
+/*                 A segment that a snapshot of the table still reads is never changed. */
+/*                 The table makes a copy that shares the arrays of every category,     */
+/*                 and a category gets its own arrays (own) the first time the copy     */
+/*                 changes it, so only the categories that change are copied.           */
+/*                                                                                      */
+/*--------------------------------------------------------------------------------------*/
+
+import java.util.*;
+
+class Segment
+{
+    String[][] values; // The cells of a category stored as Strings, values [category][row offset]
+    int[][] codes; // The cells of a category stored as dictionary codes, codes [category][row offset]
+    double[][] numbers; // The parsed number of each numeric cell, allocated once a category holds its first number
+    long[][] numeric; // Bitmap of the cells that are numbers, one bit per row offset
+    long[][] mapped; // Bitmap of the cells that have not been decoded from the mapped file yet, null if no cell ever was
+    int[] sourceRows; // The entry of the mapped file that each row comes from
+    int version; // The version of the table the segment was made in, a snapshot taken later may still read it
+    int file = -1; // The number of the segment file that holds exactly the rows of this segment, -1 once it changed (see SegmentedFormat)
+    private boolean[] shared = null; // True for the categories whose arrays are shared with the segment this one was copied from
+
+
+    // Creates an empty segment with room for SEGMENT_SIZE rows in each category
+    Segment (int columns, int version)
+    {
+        values = new String [columns][];
+        codes = new int [columns][];
+        numbers = new double [columns][];
+        numeric = new long [columns][Table.SEGMENT_SIZE >> 6];
+        this.version = version;
+    }
+
+
+    // Creates a copy of a segment that shares the arrays of every category until own is called for it
+    Segment (Segment source, int version)
+    {
+        values = source.values.clone ();
+        codes = source.codes.clone ();
+        numbers = source.numbers.clone ();
+        numeric = source.numeric.clone ();
+        mapped = (source.mapped == null) ? null : source.mapped.clone ();
+        sourceRows = (source.sourceRows == null) ? null : source.sourceRows.clone ();
+        shared = new boolean [values.length];
+        Arrays.fill (shared, true);
+        this.version = version;
+    }
+
+
+    // Clears a cell that no longer belongs to an entry so its old value can be collected
+    void clearCell (int column, int offset)
+    {
+        if (values [column] != null)
+        {
+            values [column] [offset] = null;
+        }
+        storeNumber (column, offset, false, 0);
+    }
+
+
+    // Copies a cell, including its parsed number, from another segment
+    // A cell that is still in the file is moved without decoding it, copySourceRow moves the entry of the file it is read from
+    void copyCell (int column, int offset, Segment source, int sourceOffset)
+    {
+        if (source.isMapped (column, sourceOffset))
+        {
+            markMapped (column, offset);
+        }
+        else if (source.codes [column] != null) // Cells of a dictionary category keep their code
+        {
+            storeCode (column, offset, source.codes [column] [sourceOffset], source.isNumeric (column, sourceOffset), source.number (column, sourceOffset));
+        }
+        else
+        {
+            store (column, offset, source.values [column] [sourceOffset], source.isNumeric (column, sourceOffset), source.number (column, sourceOffset));
+        }
+    }
+
+
+    // Copies the entry of the mapped file that a row comes from, which every category of the row shares
+    // Called once for each row that is copied, after copyCell was called for all of its categories
+    void copySourceRow (int offset, Segment source, int sourceOffset)
+    {
+        if (source.sourceRows != null)
+        {
+            allocateMapped ();
+            sourceRows [offset] = source.sourceRows [sourceOffset];
+        }
+    }
+
+
+    // Returns true if the cell has not been decoded from the mapped file yet
+    boolean isMapped (int column, int offset)
+    {
+        return mapped != null && (mapped [column] [offset >> 6] & (1L << offset)) != 0;
+    }
+
+
+    // Returns true if the cell holds a number
+    boolean isNumeric (int column, int offset)
+    {
+        return (numeric [column] [offset >> 6] & (1L << offset)) != 0;
+    }
+
+
+    // Marks a cell as still being in the mapped file, it is decoded from the given entry of the file when it is used
+    void map (int column, int offset, int sourceRow)
+    {
+        markMapped (column, offset);
+        sourceRows [offset] = sourceRow;
+    }
+
+
+    // Gives a category its own arrays before it is changed, if they are still shared with the segment this one was copied from
+    void own (int column)
+    {
+        if (shared != null && shared [column])
+        {
+            values [column] = (values [column] == null) ? null : values [column].clone ();
+            codes [column] = (codes [column] == null) ? null : codes [column].clone ();
+            numbers [column] = (numbers [column] == null) ? null : numbers [column].clone ();
+            numeric [column] = numeric [column].clone ();
+            if (mapped != null)
+            {
+                mapped [column] = mapped [column].clone ();
+            }
+            shared [column] = false;
+        }
+    }
+
+
+    // Returns the parsed number of a cell, or 0 if it is not a number
+    double number (int column, int offset)
+    {
+        return isNumeric (column, offset) ? numbers [column] [offset] : 0;
+    }
+
+
+    // Stores a cell value together with its parsed number
+    void store (int column, int offset, String value, boolean isNumber, double number)
+    {
+        if (values [column] == null)
+        {
+            values [column] = new String [Table.SEGMENT_SIZE];
+        }
+        values [column] [offset] = value;
+        storeNumber (column, offset, isNumber, number);
+    }
+
+
+    // Stores the dictionary code of a cell value together with its parsed number
+    void storeCode (int column, int offset, int code, boolean isNumber, double number)
+    {
+        if (codes [column] == null)
+        {
+            codes [column] = new int [Table.SEGMENT_SIZE];
+        }
+        codes [column] [offset] = code;
+        storeNumber (column, offset, isNumber, number);
+    }
+
+
+    // Replaces the codes of a category with the Strings they stand for, used when the category stops using its dictionary
+    void toPlain (int column, ColumnDictionary dictionary)
+    {
+        if (codes [column] != null)
+        {
+            values [column] = new String [Table.SEGMENT_SIZE];
+            for (int offset = 0 ; offset < Table.SEGMENT_SIZE ; offset++)
+            {
+                if (!isMapped (column, offset))
+                {
+                    values [column] [offset] = dictionary.value (codes [column] [offset]);
+                }
+            }
+            codes [column] = null;
+        }
+    }
+
+
+    // Allocates the bitmap of mapped cells and the file entry of each row, the first time a cell of the segment is mapped
+    private void allocateMapped ()
+    {
+        if (mapped == null)
+        {
+            mapped = new long [values.length][Table.SEGMENT_SIZE >> 6];
+            sourceRows = new int [Table.SEGMENT_SIZE];
+        }
+    }
+
+
+    // Marks a cell as still being in the mapped file, without changing the file entry of its row
+    private void markMapped (int column, int offset)
+    {
+        allocateMapped ();
+        if (values [column] != null)
+        {
+            values [column] [offset] = null;
+        }
+        numeric [column] [offset >> 6] &= ~(1L << offset);
+        mapped [column] [offset >> 6] |= 1L << offset;
+    }
+
+
+    // Stores the parsed number of a cell, which also marks the cell as no longer being only in the mapped file
+    private void storeNumber (int column, int offset, boolean isNumber, double number)
+    {
+        if (mapped != null)
+        {
+            mapped [column] [offset >> 6] &= ~(1L << offset);
+        }
+        if (isNumber)
+        {
+            if (numbers [column] == null) // The number array is only needed once the category holds a number
+            {
+                numbers [column] = new double [Table.SEGMENT_SIZE];
+            }
+            numbers [column] [offset] = number;
+            numeric [column] [offset >> 6] |= 1L << offset;
+        }
+        else
+        {
+            numeric [column] [offset >> 6] &= ~(1L << offset);
+        }
+    }
+}
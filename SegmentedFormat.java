@@ -0,0 +1,295 @@
+/*--------------------------------------------------------------------------------------*/
+/*                                                                                      */
+/*  SegmentedFormat.java - A layout for database files that are saved often, where a    */
+/*                         save writes only the entries that changed instead of the     */
+/*                         whole database.                                              */
+/*                                                                                      */
+/*                         The .ssf file is a small manifest that lists segment files   */
+/*                         next to it, named "<name>.ssf.<number>.seg". Each segment    */
+/*                         file holds the entries of one segment of the table           */
+/*                         (Table.SEGMENT_SIZE entries, fewer in the last one) in the   */
+/*                         binary layout (see BinaryFormat), and is never changed once  */
+/*                         it is written.                                               */
+/*                                                                                      */
+/*                         Every segment of the table remembers the segment file it was */
+/*                         read from or last saved to, and forgets it as soon as it     */
+/*                         changes. A save writes a new file for each segment that      */
+/*                         changed, replaces the manifest with an atomic rename (see    */
+/*                         Persistence), and then deletes the segment files the         */
+/*                         manifest no longer lists. Changing or adding entries writes  */
+/*                         only the segments they are in, so the cost of a save follows */
+/*                         the size of the change. Deleting an entry moves every later  */
+/*                         entry up, so the segments after it are written again. A      */
+/*                         backup or a new name links the unchanged segment files where */
+/*                         the file system allows it.                                   */
+/*                                                                                      */
+/*                         Manifest layout: magic number, version, number of categories */
+/*                         and their titles, the next segment file number, number of    */
+/*                         segments, the file number and number of entries of each      */
+/*                         segment, then the CRC32 of everything before it.             */
+/*                                                                                      */
+/*                         Run "java BinaryFormat segmented <file.ssf> ..." to convert  */
+/*                         database files to this layout, and binary or text to convert */
+/*                         them back.                                                   */
+/*                                                                                      */
+/*--------------------------------------------------------------------------------------*/
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.*;
+
+class SegmentedFormat
+{
+    static final int MAGIC = 0x53534653; // "SSFS", marks the start of a manifest
+    static final int VERSION = 1; // The version of the manifest layout
+    static final String SUFFIX = ".seg"; // Ends the name of every segment file
+
+
+    // The contents of a manifest
+    private static class Manifest
+    {
+        final String[] titles; // The category titles of the database
+        final int[] files; // The number of the segment file of each segment
+        final int[] rows; // The number of entries in each segment
+        int next = 0; // The number the next new segment file gets
+
+
+        Manifest (String[] titles, int segments)
+        {
+            this.titles = titles;
+            files = new int [segments];
+            rows = new int [segments];
+        }
+
+
+        // Reads a manifest and checks it against its CRC32
+        static Manifest read (String fileName) throws IOException
+        {
+            byte[] bytes = Files.readAllBytes (Paths.get (fileName));
+            DataInputStream in = new DataInputStream (new ByteArrayInputStream (bytes));
+            CRC32 crc = new CRC32 ();
+            Manifest manifest;
+            String[] titles;
+            int next;
+
+            if (bytes.length < 4 + 2 + 2 + 4 + 4 + 4 || in.readInt () != MAGIC)
+            {
+                throw new IOException ("\"" + fileName + "\" is not a segmented database file");
+            }
+            if (in.readShort () > VERSION)
+            {
+                throw new IOException ("\"" + fileName + "\" was written by a newer version of the program");
+            }
+            crc.update (bytes, 0, bytes.length - 4);
+            try
+            {
+                titles = new String [in.readShort ()];
+                for (int c = 0 ; c < titles.length ; c++)
+                {
+                    titles [c] = in.readUTF ();
+                }
+                next = in.readInt ();
+                manifest = new Manifest (titles, in.readInt ());
+                manifest.next = next;
+                for (int s = 0 ; s < manifest.files.length ; s++)
+                {
+                    manifest.files [s] = in.readInt ();
+                    manifest.rows [s] = in.readInt ();
+                }
+                if (in.readInt () != (int) crc.getValue () || in.available () > 0)
+                {
+                    throw new IOException ("\"" + fileName + "\" is damaged, the manifest does not match its checksum");
+                }
+            }
+            catch (EOFException | NegativeArraySizeException e) // A count that runs past the end of the file
+            {
+                throw new IOException ("\"" + fileName + "\" is damaged, the manifest is cut short");
+            }
+            return manifest;
+        }
+
+
+        // Writes the manifest followed by its CRC32
+        void write (OutputStream out) throws IOException
+        {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream ();
+            DataOutputStream data = new DataOutputStream (bytes);
+            CRC32 crc = new CRC32 ();
+
+            data.writeInt (MAGIC);
+            data.writeShort (VERSION);
+            data.writeShort (titles.length);
+            for (int c = 0 ; c < titles.length ; c++)
+            {
+                data.writeUTF (titles [c]);
+            }
+            data.writeInt (next);
+            data.writeInt (files.length);
+            for (int s = 0 ; s < files.length ; s++)
+            {
+                data.writeInt (files [s]);
+                data.writeInt (rows [s]);
+            }
+            crc.update (bytes.toByteArray ());
+            data.writeInt ((int) crc.getValue ());
+            bytes.writeTo (out);
+        }
+    }
+
+
+    // Deletes the segment files of a database that the manifest does not list, the ones an earlier save replaced or a save
+    // that was cut short left behind. A database that is deleted or no longer segmented lists none
+    static void deleteUnused (String fileName, int[] listed)
+    {
+        File file = new File (fileName).getAbsoluteFile ();
+        String prefix = file.getName () + "."; // Segment files are named <name>.ssf.<number>.seg
+        Set<Integer> keep = new HashSet<Integer> ();
+        File[] found = file.getParentFile ().listFiles ();
+
+        for (int i = 0 ; i < listed.length ; i++)
+        {
+            keep.add (listed [i]);
+        }
+        for (int i = 0 ; found != null && i < found.length ; i++)
+        {
+            String name = found [i].getName ();
+
+            if (name.startsWith (prefix) && name.endsWith (SUFFIX) && name.length () > prefix.length () + SUFFIX.length ())
+            {
+                String number = name.substring (prefix.length (), name.length () - SUFFIX.length ());
+
+                if (number.matches ("[0-9]{1,9}") && !keep.contains (Integer.parseInt (number)))
+                {
+                    found [i].delete ();
+                }
+            }
+        }
+    }
+
+
+    // Returns true if a file starts with the magic number of a manifest
+    static boolean isSegmented (String fileName)
+    {
+        try
+        {
+            DataInputStream in = new DataInputStream (new FileInputStream (fileName));
+
+            try
+            {
+                return in.readInt () == MAGIC;
+            }
+            finally
+            {
+                in.close ();
+            }
+        }
+        catch (IOException e) // Missing files and files shorter than the magic number are not segmented
+        {
+            return false;
+        }
+    }
+
+
+    // Reads a manifest and its segment files into a table, every segment remembers the file it was read from
+    static Table read (String fileName) throws IOException
+    {
+        Manifest manifest = Manifest.read (fileName);
+        Table table = new Table (manifest.titles);
+
+        for (int s = 0 ; s < manifest.files.length ; s++)
+        {
+            int before = table.size ();
+
+            BinaryFormat.read (segmentName (fileName, manifest.files [s]), table);
+            if (table.size () - before != manifest.rows [s] || (s < manifest.files.length - 1 && manifest.rows [s] != Table.SEGMENT_SIZE))
+            {
+                throw new IOException ("\"" + fileName + "\" is damaged, segment file " + manifest.files [s] + " does not hold the entries the manifest lists");
+            }
+        }
+        for (int s = 0 ; s < manifest.files.length ; s++) // Each file filled exactly one segment of the table
+        {
+            table.segment (s).file = manifest.files [s];
+        }
+        table.setSegmentedFile (fileName);
+        return table;
+    }
+
+
+    // Returns the name of a segment file of a database
+    static String segmentName (String fileName, int number)
+    {
+        return fileName + "." + number + SUFFIX;
+    }
+
+
+    // Saves a table as a manifest and segment files. Saving it to the database it was read from or last saved to only writes
+    // the segments that changed since, saving it to another database (a backup or a new name) links the segment files that
+    // did not change where the file system allows it and writes the others
+    static void write (String fileName, Table table) throws IOException
+    {
+        String home = table.segmentedFile (); // The database whose segment files the unchanged segments match
+        boolean same = fileName.equals (home);
+        Manifest manifest = new Manifest (table.titles (), table.segmentCount ());
+
+        if (isSegmented (fileName)) // New segment files are numbered after the ones the database has now
+        {
+            try
+            {
+                manifest.next = Manifest.read (fileName).next;
+            }
+            catch (IOException e) // A damaged manifest is replaced, new files skip the numbers that are taken below
+            {
+            }
+        }
+
+        for (int s = 0 ; s < table.segmentCount () ; s++)
+        {
+            final int from = s << Table.SEGMENT_BITS, to = Math.min (from + Table.SEGMENT_SIZE, table.size ()); // The entries of the segment
+            Segment segment = table.segment (s);
+
+            manifest.rows [s] = to - from;
+            if (same && segment.file >= 0) // The segment did not change since it was read or saved
+            {
+                manifest.files [s] = segment.file;
+                continue;
+            }
+            while (new File (segmentName (fileName, manifest.next)).exists ()) // Never replaces a file that a manifest may still list
+            {
+                manifest.next++;
+            }
+            manifest.files [s] = manifest.next++;
+            if (home == null || same || segment.file < 0 || !link (segmentName (home, segment.file), segmentName (fileName, manifest.files [s])))
+            {
+                Persistence.writeBinaryFile (segmentName (fileName, manifest.files [s]), out -> BinaryFormat.write (out, table, from, to));
+            }
+        }
+        Persistence.writeBinaryFile (fileName, out -> manifest.write (out)); // Readers see the old manifest and files or the new ones
+
+        if (home == null || same) // The segments now match the segment files of this database
+        {
+            for (int s = 0 ; s < table.segmentCount () ; s++)
+            {
+                table.segment (s).file = manifest.files [s];
+            }
+            table.setSegmentedFile (fileName);
+        }
+        deleteUnused (fileName, manifest.files);
+    }
+
+
+    // Gives an unchanged segment file of another database a second name, returns false if the file system cannot link files
+    // Segment files are never changed after they are written, so the two names can share the file
+    private static boolean link (String existing, String link)
+    {
+        try
+        {
+            Files.createLink (Paths.get (link), Paths.get (existing));
+            return true;
+        }
+        catch (IOException | UnsupportedOperationException | SecurityException e)
+        {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,326 @@
+/*--------------------------------------------------------------------------------------*/
+/*                                                                                      */
+/*  SortedIndex.java - An index over one category of a Table that keeps the values in   */
+/*                     sorted order, used for range and prefix searches.                */
+/*                                                                                      */
+/*                     The values are kept in a skip list in the same order that        */
+/*                     TableSort uses: numbers first, compared as doubles, then text    */
+/*                     compared with compareTo. Each value maps to the row ids that     */
+/*                     hold it, so a search only visits the values inside its range.    */
+/*                     Numbers are also kept in a second skip list in text order, so a  */
+/*                     prefix search finds the numbers that start with it the same way  */
+/*                     it finds the text.                                               */
+/*                                                                                      */
+/*--------------------------------------------------------------------------------------*/
+
+import java.util.*;
+import java.util.concurrent.*;
+
+class SortedIndex
+{
+    private final ConcurrentSkipListMap<Key, IntList> entries = new ConcurrentSkipListMap<Key, IntList> (); // The row ids of every value in sorted order
+    private final ConcurrentSkipListMap<String, Key> numbers = new ConcurrentSkipListMap<String, Key> (); // The key of every numeric value in text order, for prefix searches
+
+
+    // A value of the category in sort order, bounds are placed before or after every value with the same number
+    static class Key implements Comparable<Key>
+    {
+        final boolean numeric; // True if the value is a number
+        final double number; // The parsed number of a numeric value
+        final String text; // The value as it is stored in the table
+        final int bound; // 0 for a stored value, -1 or 1 for a bound that comes before or after equal numbers
+
+
+        Key (String text, boolean numeric, double number, int bound)
+        {
+            this.text = text;
+            this.numeric = numeric;
+            this.number = number;
+            this.bound = bound;
+        }
+
+
+        // Numbers come before text, numbers are compared as doubles and text is compared with compareTo
+        public int compareTo (Key other)
+        {
+            int result;
+
+            if (numeric != other.numeric)
+            {
+                return numeric ? -1 : 1;
+            }
+            if (!numeric)
+            {
+                return text.compareTo (other.text);
+            }
+
+            result = Double.compare (number, other.number);
+            if (result == 0 && bound != other.bound) // A bound is placed before or after every value with the same number
+            {
+                result = Integer.compare (bound, other.bound);
+            }
+            if (result == 0 && bound == 0) // Equal numbers written differently (like 6.8 and 6.80) are kept apart
+            {
+                result = text.compareTo (other.text);
+            }
+            return result;
+        }
+
+
+        // Two keys are equal when compareTo finds no difference
+        public boolean equals (Object other)
+        {
+            return other instanceof Key && compareTo ((Key) other) == 0;
+        }
+
+
+        public int hashCode ()
+        {
+            return numeric ? Double.hashCode (number) : text.hashCode ();
+        }
+    }
+
+
+    // A value of the category together with the row that holds it, used while the index is built
+    private static class RowKey extends Key
+    {
+        final int row; // The row id of the entry that holds the value
+
+
+        RowKey (String text, boolean numeric, double number, int row)
+        {
+            super (text, numeric, number, 0);
+            this.row = row;
+        }
+    }
+
+
+    // Builds the index over one category of a table
+    // The values are sorted once and put into the skip list from the front to the back, which is much faster than inserting every row
+    SortedIndex (Table table, int column)
+    {
+        RowKey[] keys = new RowKey [table.size ()];
+        Key[] numericKeys; // The numeric values, put into the second skip list in text order
+        int count = 0, numericCount = 0;
+
+        for (int row = 0 ; row < table.size () ; row++)
+        {
+            String value = table.get (column, row);
+
+            if (value != null) // Cleared cells are not indexed
+            {
+                boolean numeric = table.isNumeric (column, row);
+
+                keys [count++] = new RowKey (value, numeric, numeric ? table.number (column, row) : 0, row);
+            }
+        }
+        Arrays.sort (keys, 0, count); // The sort is stable, so the rows of each value stay in row order
+
+        for (int i = 0 ; i < count ; ) // Each run of equal values becomes one entry of the skip list
+        {
+            IntList rows = new IntList ();
+            int first = i;
+
+            while (i < count && keys [i].compareTo (keys [first]) == 0)
+            {
+                rows.add (keys [i++].row);
+            }
+            entries.put (new Key (keys [first].text, keys [first].numeric, keys [first].number, 0), rows);
+        }
+
+        numericKeys = new Key [entries.size ()];
+        for (Key key : entries.keySet ()) // The numbers come first in sorted order
+        {
+            if (!key.numeric)
+            {
+                break;
+            }
+            numericKeys [numericCount++] = key;
+        }
+        Arrays.sort (numericKeys, 0, numericCount, (key1, key2) -> key1.text.compareTo (key2.text));
+        for (int i = 0 ; i < numericCount ; i++)
+        {
+            numbers.put (numericKeys [i].text, numericKeys [i]);
+        }
+    }
+
+
+    // Adds an entry's value to the index
+    void add (String value, boolean numeric, double number, int row)
+    {
+        if (value != null) // Cleared cells are not indexed
+        {
+            Key key = new Key (value, numeric, number, 0);
+            IntList rows = entries.get (key);
+
+            if (rows == null) // The first entry that holds this value
+            {
+                rows = new IntList ();
+                entries.put (key, rows);
+                if (numeric)
+                {
+                    numbers.put (value, key);
+                }
+            }
+            rows.add (row);
+        }
+    }
+
+
+    // Removes every value from the index
+    void clear ()
+    {
+        entries.clear ();
+        numbers.clear ();
+    }
+
+
+    // Returns the row ids of the entries whose value starts with the prefix (case sensitive), in sorted order
+    int[] prefix (String prefix)
+    {
+        RowCollector found = new RowCollector ();
+        Key from = new Key (prefix, false, 0, 0); // The first text value that can start with the prefix
+        List<Key> matches = new ArrayList<Key> (); // The numeric values that start with the prefix
+
+        if (prefix.length () == 0) // Every value starts with an empty prefix
+        {
+            return range (null, null);
+        }
+
+        for (Map.Entry<String, Key> entry : numbers.tailMap (prefix, true).entrySet ()) // Numbers starting with the prefix are a single run in text order
+        {
+            if (!entry.getKey ().startsWith (prefix))
+            {
+                break;
+            }
+            matches.add (entry.getValue ());
+        }
+        Collections.sort (matches); // Back into sorted order, which only costs time for the numbers that match
+        for (Key key : matches)
+        {
+            found.addAll (entries.get (key));
+        }
+
+        for (Map.Entry<Key, IntList> entry : entries.tailMap (from, true).entrySet ()) // Text starting with the prefix is a single run in sorted order
+        {
+            if (!entry.getKey ().text.startsWith (prefix))
+            {
+                break;
+            }
+            found.addAll (entry.getValue ());
+        }
+        return found.toArray ();
+    }
+
+
+    // Returns the row ids of the entries whose value is between low and high (both included, null for no limit), in sorted order
+    // A number as the low limit with no high limit stops at the last number, so the text values after the numbers are left out
+    int[] range (String low, String high)
+    {
+        RowCollector found = new RowCollector ();
+        NavigableMap<Key, IntList> inRange = entries; // The part of the index between the limits
+        Key firstText = new Key ("", false, 0, 0); // Comes before every text value and after every number
+
+        if (low != null && high != null && bound (low, -1).compareTo (bound (high, 1)) > 0) // The lowest value is above the highest value
+        {
+            return found.toArray ();
+        }
+        if (low != null)
+        {
+            inRange = inRange.tailMap (bound (low, -1), true);
+        }
+        if (high != null)
+        {
+            inRange = inRange.headMap (bound (high, 1), true);
+        }
+        else if (low != null && Table.isNumber (low))
+        {
+            inRange = inRange.headMap (firstText, false);
+        }
+
+        for (IntList rows : inRange.values ())
+        {
+            found.addAll (rows);
+        }
+        return found.toArray ();
+    }
+
+
+    // Removes an entry's value from the index
+    void remove (String value, boolean numeric, double number, int row)
+    {
+        if (value != null)
+        {
+            Key key = new Key (value, numeric, number, 0);
+            IntList rows = entries.get (key);
+
+            if (rows != null && rows.remove (row) && rows.size () == 0) // Drops values that no entry holds anymore
+            {
+                entries.remove (key);
+                numbers.remove (value);
+            }
+        }
+    }
+
+
+    // Updates the row ids after entries were removed from the table and the following entries moved up, see IntList.shiftDown
+    void removeRows (long[] removed, int[] before)
+    {
+        for (IntList rows : entries.values ())
+        {
+            rows.shiftDown (removed, before);
+        }
+    }
+
+
+    // Returns a key for a search limit, numbers get a bound so that every value with the same number is included
+    private static Key bound (String value, int side)
+    {
+        if (Table.isNumber (value))
+        {
+            return new Key (value, true, Double.parseDouble (value), side);
+        }
+        return new Key (value, false, 0, 0);
+    }
+
+
+    // Collects row ids in the order they are found
+    private static class RowCollector
+    {
+        private int[] rows = new int [16]; // The row ids that were found
+        private int size = 0; // The number of row ids that were found
+
+
+        // Adds a row id to the end
+        void add (int row)
+        {
+            if (size == rows.length)
+            {
+                rows = Arrays.copyOf (rows, size * 2);
+            }
+            rows [size++] = row;
+        }
+
+
+        // Adds every row id of a list to the end
+        void addAll (IntList list)
+        {
+            for (int i = 0 ; i < list.size () ; i++)
+            {
+                add (list.get (i));
+            }
+        }
+
+
+        int size ()
+        {
+            return size;
+        }
+
+
+        int[] toArray ()
+        {
+            return Arrays.copyOf (rows, size);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*--------------------------------------------------------------------------------------*/
+/*                                                                                      */
+/*  SortedView.java - Shows the entries of a Table in sorted order one page at a time,  */
+/*                    without sorting or reordering the table.                          */
+/*                                                                                      */
+/*                    Each page is found with TableSort.top, which keeps the entries    */
+/*                    of the page in a bounded heap while reading every entry once, so  */
+/*                    a page of k entries takes O(n log k) comparisons instead of a     */
+/*                    full sort. The view remembers the last entry of each page it has  */
+/*                    shown (the cursor), and the next page is the first k entries that */
+/*                    come after the cursor. Going back reuses the cursor of the page   */
+/*                    before, so only pages that were never shown have to be found.     */
+/*                                                                                      */
+/*                    Entries that are equal in every category stay in table order,     */
+/*                    so the pages together hold the same order as a full sort. The     */
+/*                    table should not change while a view of it is in use.             */
+/*                                                                                      */
+/*--------------------------------------------------------------------------------------*/
+
+import java.util.*;
+
+class SortedView
+{
+    private final Table table; // The table that is viewed
+    private final int[] priority; // The categories to sort by, in order of priority
+    private final boolean descending; // True to show the largest values first
+    private final int pageSize; // The number of entries on a page
+    private int[] starts = new int [] {-1}; // starts [p] is the cursor page p starts after, -1 for the first page
+    private int known = 1; // The number of pages whose cursor is known
+
+
+    // Creates a view of the table sorted by the categories in the priority order
+    SortedView (Table table, int[] priority, boolean descending, int pageSize)
+    {
+        this.table = table;
+        this.priority = priority;
+        this.descending = descending;
+        this.pageSize = pageSize;
+    }
+
+
+    // Returns the row ids of a page in sorted order, pages start at 0
+    // Pages that were never shown before it are found first, so going through the pages in order reads each page once
+    int[] page (int page)
+    {
+        int[] rows = new int [0];
+
+        if (page < 0 || page >= pageCount ())
+        {
+            throw new IllegalArgumentException ("There is no page " + (page + 1));
+        }
+        for (int p = Math.min (page, known - 1) ; p <= page ; p++) // Starts from the closest page whose cursor is known
+        {
+            rows = TableSort.top (table, null, priority, descending, starts [p], pageSize);
+            if (p + 1 == known && p + 1 < pageCount ()) // Remembers where the next page starts
+            {
+                if (known == starts.length)
+                {
+                    starts = Arrays.copyOf (starts, known * 2);
+                }
+                starts [known++] = rows [rows.length - 1];
+            }
+        }
+        return rows;
+    }
+
+
+    // Returns the number of pages
+    int pageCount ()
+    {
+        return (table.size () + pageSize - 1) / pageSize;
+    }
+
+
+    // Returns the number of entries on a page
+    int pageSize ()
+    {
+        return pageSize;
+    }
+}
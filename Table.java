@@ -0,0 +1,1074 @@
+/*--------------------------------------------------------------------------------------*/
+/*                                                                                      */
+/*  Table.java - The in-memory table engine that holds the entries of an open database. */
+/*                                                                                      */
+/*               Entries are identified by row ids (0 to size - 1) and stored column    */
+/*               by column in fixed-size segments. Adding rows only ever allocates a    */
+/*               new segment, so the table grows without copying existing entries       */
+/*               and its memory use is proportional to the number of rows it holds.     */
+/*                                                                                      */
+/*               The category titles are kept separately from the entries.              */
+/*                                                                                      */
+/*               Every cell is checked once when it is stored to see if it is a number, */
+/*               numbers are kept as parsed doubles next to their String so that sorts  */
+/*               and searches can compare them without parsing text again.              */
+/*                                                                                      */
+/*               When a write-ahead log is attached, every change is also appended      */
+/*               to the log, and commit makes the appended changes safe on disk.        */
+/*                                                                                      */
+/*               Every category starts with a ColumnDictionary, so repeated values are  */
+/*               stored once and each row only holds an int code. A category whose      */
+/*               distinct values are more than a quarter of its entries (such as a      */
+/*               unique ID) switches to storing Strings and is searched through a       */
+/*               HashIndex, a small floor keeps small tables on their dictionaries.     */
+/*                                                                                      */
+/*               A table opened from a MappedFile starts with every cell still in the   */
+/*               file. A cell is decoded and checked for a number the first time it is  */
+/*               used, and the type of a category is only known once all of its cells   */
+/*               have been decoded. Before the file is replaced, every cell left in it  */
+/*               is decoded and the file is let go (unmap).                             */
+/*                                                                                      */
+/*               Several threads may read a table at once once every cell is decoded    */
+/*               (indexes are built under the table's monitor), but a change must not   */
+/*               run while anything else reads or changes the table.                    */
+/*                                                                                      */
+/*               A snapshot is a read-only table that keeps the entries as they were    */
+/*               when it was taken, so other threads can read it while this table       */
+/*               changes. It shares the segments of the table instead of copying them.  */
+/*               Taking a snapshot starts a new version of the table, and while any     */
+/*               snapshot is in use, a segment made in an older version is copied       */
+/*               before it is changed (copy on write, see Segment.own). A snapshot      */
+/*               therefore never sees a row halfway through a change, and old segments  */
+/*               are collected once no snapshot refers to them.                         */
+/*                                                                                      */
+/*--------------------------------------------------------------------------------------*/
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+class Table
+{
+    static final int SEGMENT_BITS = 12; // Each segment holds 2^12 rows
+    static final int SEGMENT_SIZE = 1 << SEGMENT_BITS; // Number of rows in a segment
+    static final int SEGMENT_MASK = SEGMENT_SIZE - 1; // Mask that finds the offset of a row inside its segment
+
+    static final int TEXT = 0; // Column type of a category that holds no numbers
+    static final int NUMBERS = 1; // Column type of a category where every value is a number
+    static final int MIXED = 2; // Column type of a category that holds both numbers and text
+
+    static final int DICTIONARY_LIMIT = 1 << 12; // A category keeps its dictionary while it has at most this many distinct values or one for every four entries
+
+    static int parallelThreshold = Integer.getInteger ("parallelThreshold", 1 << 16); // Sorts and scans of fewer entries run on one thread, set with -DparallelThreshold=<entries>
+
+    private final String[] titles; // The category titles of the table
+    private final int[] numericCount; // The number of numeric cells in each category
+    private final int[] mappedCount; // The number of cells of each category that have not been decoded from the mapped file yet
+    private final HashIndex[] hashIndexes; // The exact-match index of each category, built the first time the category is searched
+    private final ColumnDictionary[] dictionaries; // The shared values of each category, null for a category that stores Strings
+    private final SortedIndex[] sortedIndexes; // The sorted index of each category, built the first time the category has a range or prefix search
+    private Segment[] segments = new Segment [4]; // The segments that hold the entries, grows as rows are added
+    private int segmentCount = 0; // The number of segments in use
+    private int size = 0; // The number of entries in the table
+    private WriteAheadLog log = null; // Records every change to the table, null if the changes are not logged
+    private MappedFile file = null; // The file that cells which were not used yet are decoded from, null if every cell was stored
+    private int version = 0; // Goes up each time a snapshot is taken, segments made in an older version may be read by a snapshot
+    private final AtomicInteger snapshots = new AtomicInteger (); // The number of snapshots of this table that are still in use
+    private final AtomicInteger users = new AtomicInteger (1); // The number of users of a snapshot that have not released it
+    private final Table source; // The table a snapshot was taken from, null if this table is not a snapshot
+    private Table undo = null; // A snapshot of the table when the open transaction began, null if no transaction is open
+    private ColumnDictionary[] undoDictionaries = null; // The dictionaries when the open transaction began, as a change may replace one
+    private String segmentedFile = null; // The segmented database file the segment files of the segments belong to, see SegmentedFormat
+
+
+    // Hands out entries one at a time to addAll, returns null after the last entry
+    interface RowSource
+    {
+        String[] next () throws IOException;
+    }
+
+
+    // Creates an empty table with the given category titles
+    Table (String[] titles)
+    {
+        this.titles = titles.clone ();
+        source = null;
+        numericCount = new int [titles.length];
+        mappedCount = new int [titles.length];
+        hashIndexes = new HashIndex [titles.length];
+        sortedIndexes = new SortedIndex [titles.length];
+        dictionaries = new ColumnDictionary [titles.length];
+        for (int c = 0 ; c < titles.length ; c++)
+        {
+            dictionaries [c] = new ColumnDictionary ();
+        }
+    }
+
+
+    // Creates a table holding the entries of a mapped file, no cell is decoded until it is used
+    Table (MappedFile file)
+    {
+        this (file.titles ());
+        this.file = file;
+        for (int r = 0 ; r < file.rows () ; r++)
+        {
+            int rowId = appendRow ();
+
+            for (int c = 0 ; c < titles.length ; c++)
+            {
+                segments [rowId >> SEGMENT_BITS].map (c, rowId & SEGMENT_MASK, r);
+            }
+        }
+        Arrays.fill (mappedCount, size);
+    }
+
+
+    // Creates a snapshot that shares the segments and dictionaries of a table as they are now
+    private Table (Table source)
+    {
+        this.source = source;
+        titles = source.titles;
+        numericCount = source.numericCount.clone ();
+        mappedCount = source.mappedCount.clone ();
+        hashIndexes = new HashIndex [titles.length]; // The indexes of the table keep changing, so a snapshot builds its own when it is searched
+        sortedIndexes = new SortedIndex [titles.length];
+        dictionaries = new ColumnDictionary [titles.length];
+        for (int c = 0 ; c < titles.length ; c++)
+        {
+            dictionaries [c] = (source.dictionaries [c] == null) ? null : source.dictionaries [c].snapshot ();
+        }
+        segments = source.segments.clone (); // Segments the table copies or adds later only change its own array
+        segmentCount = source.segmentCount;
+        size = source.size;
+        version = source.version;
+    }
+
+
+    // Adds an entry to the end of the table and returns its row id
+    int add (String[] row) throws IOException
+    {
+        int rowId = appendRow (); // The new entry is placed after the last entry
+
+        for (int c = 0 ; c < titles.length ; c++) // Stores each category of the entry
+        {
+            store (c, rowId, row [c]);
+        }
+        if (log != null)
+        {
+            log.add (row);
+        }
+        return rowId;
+    }
+
+
+    // Adds an entry whose numbers are already known, used when loading a file that stores numbers already parsed
+    int add (String[] row, boolean[] numeric, double[] numbers) throws IOException
+    {
+        int rowId = appendRow ();
+
+        for (int c = 0 ; c < titles.length ; c++)
+        {
+            store (c, rowId, row [c], numeric [c], numbers [c]);
+        }
+        if (log != null)
+        {
+            log.add (row);
+        }
+        return rowId;
+    }
+
+
+    // Adds every entry of a source to the end of the table and returns the number added
+    // The indexes are dropped while the entries are added and the ones that existed are built again once at the end
+    int addAll (RowSource source) throws IOException
+    {
+        boolean[] hashed = new boolean [titles.length], sorted = new boolean [titles.length]; // The indexes to build again
+        String[] row;
+        int count = 0;
+
+        for (int c = 0 ; c < titles.length ; c++)
+        {
+            hashed [c] = hashIndexes [c] != null;
+            sorted [c] = sortedIndexes [c] != null;
+        }
+        Arrays.fill (hashIndexes, null); // Updating an index for every entry costs more than building it once
+        Arrays.fill (sortedIndexes, null);
+
+        try
+        {
+            while ((row = source.next ()) != null)
+            {
+                add (row);
+                count++;
+            }
+        }
+        finally // The indexes are built again even if the source failed part of the way, so they match the entries that were added
+        {
+            for (int c = 0 ; c < titles.length ; c++)
+            {
+                if (hashed [c])
+                {
+                    hashIndexes [c] = new HashIndex (this, c);
+                }
+                if (sorted [c])
+                {
+                    sortedIndexes [c] = new SortedIndex (this, c);
+                }
+            }
+        }
+        return count;
+    }
+
+
+    // Attaches the write-ahead log that every following change is appended to
+    void attachLog (WriteAheadLog log)
+    {
+        this.log = log;
+    }
+
+
+    // Starts a transaction, the changes until commit are logged as a single record and rollback takes all of them back
+    // The table as it is now is kept as a snapshot, so a change only copies the segments it touches
+    void begin () throws IOException
+    {
+        checkChange ();
+        if (undo != null)
+        {
+            throw new IllegalStateException ("A transaction is already open, commit or roll it back first");
+        }
+        undo = snapshot ();
+        undoDictionaries = dictionaries.clone ();
+        if (log != null)
+        {
+            log.begin ();
+        }
+    }
+
+
+    // Removes every entry from the table
+    void clear () throws IOException
+    {
+        checkChange ();
+        segments = new Segment [4];
+        segmentCount = 0;
+        size = 0;
+        Arrays.fill (numericCount, 0);
+        Arrays.fill (mappedCount, 0);
+        file = null; // No entry comes from the file anymore
+
+        for (int c = 0 ; c < titles.length ; c++) // Every category gets a new, empty dictionary
+        {
+            dictionaries [c] = new ColumnDictionary ();
+        }
+
+        for (int c = 0 ; c < titles.length ; c++) // Existing indexes stay in place and are emptied
+        {
+            if (hashIndexes [c] != null)
+            {
+                hashIndexes [c].clear ();
+            }
+            if (sortedIndexes [c] != null)
+            {
+                sortedIndexes [c].clear ();
+            }
+        }
+        if (log != null)
+        {
+            log.clear ();
+        }
+    }
+
+
+    // Returns the dictionary code of a cell, only for a category that has a dictionary
+    int code (int column, int row)
+    {
+        decode (column, row);
+        return segments [row >> SEGMENT_BITS].codes [column] [row & SEGMENT_MASK];
+    }
+
+
+    // Returns the number of categories in the table
+    int columnCount ()
+    {
+        return titles.length;
+    }
+
+
+    // Makes every change appended to the write-ahead log since the last commit safe on disk, ending the open transaction
+    void commit () throws IOException
+    {
+        endTransaction ();
+        if (log != null)
+        {
+            log.sync ();
+        }
+    }
+
+
+    // Returns the type of a category that was inferred from its values: TEXT, NUMBERS or MIXED
+    int columnType (int column)
+    {
+        decodeColumn (column); // Every cell has to be checked to know the type
+        if (numericCount [column] == 0)
+        {
+            return TEXT;
+        }
+        return (numericCount [column] == size) ? NUMBERS : MIXED;
+    }
+
+
+    // Decodes every cell of a category that is still in the mapped file
+    void decodeColumn (int column)
+    {
+        for (int row = 0 ; mappedCount [column] > 0 && row < size ; row++)
+        {
+            decode (column, row);
+        }
+    }
+
+
+    // Returns true once every cell has been decoded from the mapped file, after that reading the table no longer changes it
+    boolean decoded ()
+    {
+        for (int column = 0 ; column < mappedCount.length ; column++)
+        {
+            if (mappedCount [column] > 0)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    // Returns the dictionary of a category, or null if the category stores Strings
+    ColumnDictionary dictionary (int column)
+    {
+        return dictionaries [column];
+    }
+
+
+    // Ends the open transaction and keeps its changes, which are appended to the write-ahead log as one record without a sync
+    // Does nothing if no transaction is open
+    void endTransaction () throws IOException
+    {
+        if (undo != null)
+        {
+            if (log != null)
+            {
+                log.commit ();
+            }
+            undo.release ();
+            undo = null;
+            undoDictionaries = null;
+        }
+    }
+
+
+    // Returns the row ids of the entries whose value in a category matches, ignoring case, in ascending order
+    int[] find (int column, String value)
+    {
+        decodeColumn (column); // Decoding can still switch the category away from its dictionary, so it is done before the search
+        if (dictionaries [column] != null) // A category with a dictionary is searched by comparing codes, so it needs no index
+        {
+            return ColumnScan.rows (ColumnScan.matchCodes (this, column, dictionaries [column].matches (value)), -1); // Large tables are scanned in parallel
+        }
+        return hashIndex (column).find (value);
+    }
+
+
+    // Returns the value of a category for the entry with the given row id
+    String get (int column, int row)
+    {
+        decode (column, row);
+        return value (segments [row >> SEGMENT_BITS], column, row & SEGMENT_MASK);
+    }
+
+
+    // Returns all the categories of an entry as an array
+    String[] getRow (int row)
+    {
+        String[] values = new String [titles.length];
+
+        for (int c = 0 ; c < titles.length ; c++)
+        {
+            values [c] = get (c, row);
+        }
+        return values;
+    }
+
+
+    // Returns true if a category has an exact-match index, so a search on it does not scan the entries
+    boolean hasHashIndex (int column)
+    {
+        return hashIndexes [column] != null;
+    }
+
+
+    // Returns true if a category has a sorted index, so a range or prefix search on it does not scan the entries
+    boolean hasSortedIndex (int column)
+    {
+        return sortedIndexes [column] != null;
+    }
+
+
+    // Returns true while a transaction is open
+    boolean inTransaction ()
+    {
+        return undo != null;
+    }
+
+
+    // Returns true if the value of a category for an entry is a number
+    boolean isNumeric (int column, int row)
+    {
+        decode (column, row);
+        return segments [row >> SEGMENT_BITS].isNumeric (column, row & SEGMENT_MASK);
+    }
+
+
+    // Returns the write-ahead log attached to the table, or null if the changes are not logged
+    WriteAheadLog log ()
+    {
+        return log;
+    }
+
+
+    // Returns the parsed number of a numeric cell, or 0 if the cell is not a number
+    double number (int column, int row)
+    {
+        Segment segment; // The segment that holds the entry
+
+        decode (column, row);
+        segment = segments [row >> SEGMENT_BITS];
+        return segment.isNumeric (column, row & SEGMENT_MASK) ? segment.numbers [column] [row & SEGMENT_MASK] : 0;
+    }
+
+
+    // Returns a category value of an entry like get, but a cell that is still in the mapped file is read without being stored
+    // Used to stream every entry once (an export) without filling the table with the values of the whole file
+    String peek (int column, int row)
+    {
+        Segment segment;
+
+        checkRow (row);
+        segment = segments [row >> SEGMENT_BITS];
+        if (segment.isMapped (column, row & SEGMENT_MASK))
+        {
+            return file.get (column, segment.sourceRows [row & SEGMENT_MASK]);
+        }
+        return value (segment, column, row & SEGMENT_MASK);
+    }
+
+
+    // Rearranges the entries so that the entry at row order [i] becomes row i, every category is copied once
+    void permute (int[] order)
+    {
+        Segment[] sorted = new Segment [segments.length]; // The segments that will hold the rearranged entries
+
+        checkChange ();
+        if (order.length != size)
+        {
+            throw new IllegalArgumentException ("The order has " + order.length + " rows, the table has " + size + " entries");
+        }
+
+        for (int s = 0 ; s < segmentCount ; s++) // Every entry moves, so they go into new segments that no snapshot shares
+        {
+            sorted [s] = new Segment (titles.length, version);
+        }
+        for (int c = 0 ; c < titles.length ; c++) // Moves one category at a time so each pass reads and writes a single column
+        {
+            for (int r = 0 ; r < size ; r++)
+            {
+                checkRow (order [r]);
+                sorted [r >> SEGMENT_BITS].copyCell (c, r & SEGMENT_MASK, segments [order [r] >> SEGMENT_BITS], order [r] & SEGMENT_MASK);
+            }
+        }
+        for (int r = 0 ; r < size ; r++) // The cells still in the mapped file are read from the entry of their old row
+        {
+            sorted [r >> SEGMENT_BITS].copySourceRow (r & SEGMENT_MASK, segments [order [r] >> SEGMENT_BITS], order [r] & SEGMENT_MASK);
+        }
+        segments = sorted;
+        Arrays.fill (hashIndexes, null); // Every row id has changed, so the indexes are rebuilt the next time they are used
+        Arrays.fill (sortedIndexes, null);
+    }
+
+
+    // Returns the row ids of the entries whose value in a category starts with the prefix (case sensitive), in sorted order
+    int[] prefix (int column, String prefix)
+    {
+        return sortedIndex (column).prefix (prefix);
+    }
+
+
+    // Returns the row ids of the entries whose value in a category is between low and high (both included, null for no limit), in sorted order
+    int[] range (int column, String low, String high)
+    {
+        return sortedIndex (column).range (low, high);
+    }
+
+
+    // Removes an entry and moves every following entry up by one row
+    void remove (int row) throws IOException
+    {
+        long[] removed;
+
+        checkChange ();
+        checkRow (row);
+        removed = new long [(size + 63) >> 6];
+        removed [row >> 6] = 1L << row;
+        removeRows (removed, row, 1);
+        if (log != null)
+        {
+            log.delete (row);
+        }
+    }
+
+
+    // Removes several entries at once, rows holds their row ids from before any of them is removed (in any order, repeats count once)
+    // The removed rows are marked in a bitmap and the following entries move up past all of them in a single pass,
+    // so removing k entries reads the table once instead of k times. Returns the number of entries removed
+    int removeAll (int[] rows) throws IOException
+    {
+        long[] removed = new long [(size + 63) >> 6]; // Bit r is set if row r is removed
+        int first = size, count = 0;
+
+        checkChange ();
+        for (int i = 0 ; i < rows.length ; i++)
+        {
+            checkRow (rows [i]);
+            if ((removed [rows [i] >> 6] & (1L << rows [i])) == 0)
+            {
+                removed [rows [i] >> 6] |= 1L << rows [i];
+                first = Math.min (first, rows [i]);
+                count++;
+            }
+        }
+        if (count == 0)
+        {
+            return 0;
+        }
+        removeRows (removed, first, count);
+        if (log != null)
+        {
+            log.deleteAll (removed, count);
+        }
+        return count;
+    }
+
+
+    // Changes the value of a category for the entry with the given row id
+    void set (int column, int row, String value) throws IOException
+    {
+        store (column, row, value);
+        if (log != null)
+        {
+            log.set (column, row, value);
+        }
+    }
+
+
+    // Lets go of a snapshot, once its last user has released it the table it was taken from stops copying segments for it
+    // The snapshot must not be read after that, its old segments are collected once nothing refers to them
+    void release ()
+    {
+        if (source != null && users.decrementAndGet () == 0)
+        {
+            source.snapshots.decrementAndGet ();
+        }
+    }
+
+
+    // Adds a user to a snapshot, so that it stays in use until every user has called release
+    void retain ()
+    {
+        users.incrementAndGet ();
+    }
+
+
+    // Takes back every change since the open transaction began, its records never reach the write-ahead log
+    // The indexes are dropped and built again the next time their category is searched
+    void rollback ()
+    {
+        if (undo == null)
+        {
+            throw new IllegalStateException ("No transaction is open");
+        }
+        segments = undo.segments.clone (); // The segments the snapshot kept were never changed, later changes went to copies
+        segmentCount = undo.segmentCount;
+        size = undo.size;
+        System.arraycopy (undo.numericCount, 0, numericCount, 0, titles.length);
+        System.arraycopy (undo.mappedCount, 0, mappedCount, 0, titles.length);
+        System.arraycopy (undoDictionaries, 0, dictionaries, 0, titles.length); // Values are only added to a dictionary, so the old codes still hold
+        Arrays.fill (hashIndexes, null);
+        Arrays.fill (sortedIndexes, null);
+        undo.release ();
+        undo = null;
+        undoDictionaries = null;
+        if (log != null)
+        {
+            log.rollback ();
+        }
+    }
+
+
+    // Returns a segment of the table, used by ColumnScan to read the arrays of a category directly
+    Segment segment (int index)
+    {
+        return segments [index];
+    }
+
+
+    // Returns the number of segments in use, the last one can be partly filled
+    int segmentCount ()
+    {
+        return segmentCount;
+    }
+
+
+    // Returns the segmented database file that unchanged segments were read from or last saved to, null if there is none
+    String segmentedFile ()
+    {
+        return segmentedFile;
+    }
+
+
+    // Sets the segmented database file that the segment file numbers of the segments belong to
+    void setSegmentedFile (String fileName)
+    {
+        segmentedFile = fileName;
+    }
+
+
+    // Returns the number of entries in the table
+    int size ()
+    {
+        return size;
+    }
+
+
+    // Returns a read-only snapshot of the entries as they are now, which later changes to this table do not reach
+    // Every cell is decoded first, as decoding changes segments the snapshot shares. No other thread may change the table
+    // while the snapshot is taken, but it can be read while the table changes, and release is called once it is no longer used
+    Table snapshot ()
+    {
+        if (source != null) // A snapshot never changes, so it is its own snapshot
+        {
+            retain ();
+            return this;
+        }
+        for (int c = 0 ; c < titles.length ; c++)
+        {
+            decodeColumn (c);
+        }
+        snapshots.incrementAndGet ();
+        version++; // Every segment that exists now belongs to the snapshot and is copied before it changes
+        return new Table (this);
+    }
+
+
+    // Sorts the entries by the categories in the priority order
+    void sort (int[] priority, boolean descending) throws IOException
+    {
+        permute (TableSort.sortOrder (this, priority, descending));
+        if (log != null) // Replaying the sort gives the same order because the sort is stable
+        {
+            log.sort (priority, descending);
+        }
+    }
+
+
+    // Returns the row ids of the first n entries sorted by a category, largest values first if largest is true
+    // Entries with equal values are returned in table order, found with a bounded heap so no index is built and nothing is sorted
+    int[] top (int column, int n, boolean largest)
+    {
+        return TableSort.top (this, null, new int [] {column}, largest, -1, n);
+    }
+
+
+    // Returns the title of a category
+    String title (int column)
+    {
+        return titles [column];
+    }
+
+
+    // Returns a copy of all the category titles
+    String[] titles ()
+    {
+        return titles.clone ();
+    }
+
+
+    // Decodes every cell that is still in the mapped file and lets go of the file, called before the file is replaced
+    // Windows cannot replace a file while it is mapped, and the JDK only unmaps a file once nothing refers to the map
+    void unmap ()
+    {
+        if (file != null)
+        {
+            for (int c = 0 ; c < titles.length ; c++)
+            {
+                decodeColumn (c);
+            }
+            file = null;
+        }
+    }
+
+
+    // Checks if a String can be read as a double without throwing an exception, follows the rules of Double.parseDouble
+    static boolean isNumber (String value)
+    {
+        int start = 0, end; // The first and last characters after leading and trailing whitespace is skipped
+        int digits = 0; // The number of digits before the exponent
+
+        if (value == null)
+        {
+            return false;
+        }
+        end = value.length ();
+        while (start < end && value.charAt (start) <= ' ') // Double.parseDouble ignores surrounding whitespace
+        {
+            start++;
+        }
+        while (end > start && value.charAt (end - 1) <= ' ')
+        {
+            end--;
+        }
+        if (start < end && (value.charAt (start) == '+' || value.charAt (start) == '-')) // Optional sign
+        {
+            start++;
+        }
+        if (value.startsWith ("NaN", start) || value.startsWith ("Infinity", start)) // The special values
+        {
+            return end - start == (value.charAt (start) == 'N' ? 3 : 8);
+        }
+        if (end - start > 1 && value.charAt (start) == '0' && (value.charAt (start + 1) == 'x' || value.charAt (start + 1) == 'X'))
+        {
+            return hexTest (value); // Hexadecimal numbers are rare enough to be left to Double.parseDouble
+        }
+        if (end > start && "fFdD".indexOf (value.charAt (end - 1)) >= 0) // Optional float or double suffix
+        {
+            end--;
+        }
+        while (start < end && value.charAt (start) >= '0' && value.charAt (start) <= '9') // Digits before the decimal point
+        {
+            start++;
+            digits++;
+        }
+        if (start < end && value.charAt (start) == '.') // Optional decimal point and the digits after it
+        {
+            start++;
+            while (start < end && value.charAt (start) >= '0' && value.charAt (start) <= '9')
+            {
+                start++;
+                digits++;
+            }
+        }
+        if (digits == 0) // There must be at least one digit
+        {
+            return false;
+        }
+        if (start < end && (value.charAt (start) == 'e' || value.charAt (start) == 'E')) // Optional exponent
+        {
+            start++;
+            if (start < end && (value.charAt (start) == '+' || value.charAt (start) == '-'))
+            {
+                start++;
+            }
+            if (start == end)
+            {
+                return false;
+            }
+            while (start < end && value.charAt (start) >= '0' && value.charAt (start) <= '9')
+            {
+                start++;
+            }
+        }
+        return start == end; // Anything left over means the String is not a number
+    }
+
+
+    // Returns true if work over this many entries should be split between the processors
+    static boolean parallel (int entries)
+    {
+        return entries >= parallelThreshold && Runtime.getRuntime ().availableProcessors () > 1;
+    }
+
+
+    // Checks if a hexadecimal String can be read as a double
+    private static boolean hexTest (String value)
+    {
+        try
+        {
+            Double.parseDouble (value);
+        }
+        catch (NumberFormatException e)
+        {
+            return false;
+        }
+        return true;
+    }
+
+
+    // Stores a category value for an entry and checks once if it is a number, the change is not logged
+    private void store (int column, int row, String value)
+    {
+        ColumnDictionary dictionary = dictionaries [column];
+        int code = (dictionary == null) ? -1 : dictionary.code (value); // A value that is already in the dictionary was parsed before
+        boolean isNumber = (code >= 0) ? dictionary.isNumeric (code) : isNumber (value);
+
+        store (column, row, value, isNumber, (code >= 0) ? dictionary.number (code) : isNumber ? Double.parseDouble (value) : 0);
+    }
+
+
+    // Stores a category value for an entry together with its parsed number, the change is not logged
+    private void store (int column, int row, String value, boolean isNumber, double number)
+    {
+        Segment segment; // The segment that holds the entry
+        boolean wasNumber; // If the old value was a number
+
+        checkChange ();
+        decode (column, row); // The old value has to be known to update the indexes
+        segment = writable (row >> SEGMENT_BITS, column);
+        wasNumber = segment.isNumeric (column, row & SEGMENT_MASK);
+        if (hashIndexes [column] != null) // Moves the entry to its new value in the index
+        {
+            hashIndexes [column].remove (value (segment, column, row & SEGMENT_MASK), row);
+            hashIndexes [column].add (value, row);
+        }
+        if (sortedIndexes [column] != null)
+        {
+            sortedIndexes [column].remove (value (segment, column, row & SEGMENT_MASK), wasNumber, wasNumber ? number (column, row) : 0, row);
+        }
+        put (segment, column, row & SEGMENT_MASK, value, isNumber, number);
+        if (sortedIndexes [column] != null)
+        {
+            sortedIndexes [column].add (value, isNumber, isNumber ? number (column, row) : 0, row);
+        }
+
+        if (isNumber != wasNumber) // Keeps the count of numeric cells up to date for the column type
+        {
+            numericCount [column] += isNumber ? 1 : -1;
+        }
+    }
+
+
+    // Adds an empty row to the end of the table and returns its row id
+    private int appendRow ()
+    {
+        checkChange ();
+        if ((size >> SEGMENT_BITS) == segmentCount) // Allocates a new segment when the last one is full
+        {
+            if (segmentCount == segments.length) // Only the small array of segment references is ever copied
+            {
+                segments = Arrays.copyOf (segments, segmentCount * 2);
+            }
+            segments [segmentCount++] = new Segment (titles.length, version);
+        }
+        return size++;
+    }
+
+
+    // Removes the rows marked in a bitmap and moves the following entries up past them, one category at a time
+    // first is the lowest removed row and count the number of removed rows
+    private void removeRows (long[] removed, int first, int count)
+    {
+        int[] before = new int [removed.length]; // The number of removed rows below each word of the bitmap
+
+        for (int w = 1 ; w < removed.length ; w++)
+        {
+            before [w] = before [w - 1] + Long.bitCount (removed [w - 1]);
+        }
+        for (int c = 0 ; c < titles.length ; c++)
+        {
+            int to = first; // The row the next kept entry moves to
+
+            for (int r = first ; r < size ; r++) // The removed cells no longer count towards the column types or appear in the indexes
+            {
+                if ((removed [r >> 6] & (1L << r)) != 0)
+                {
+                    if (isNumeric (c, r))
+                    {
+                        numericCount [c]--;
+                    }
+                    if (hashIndexes [c] != null)
+                    {
+                        hashIndexes [c].remove (get (c, r), r);
+                    }
+                    if (sortedIndexes [c] != null)
+                    {
+                        sortedIndexes [c].remove (get (c, r), isNumeric (c, r), number (c, r), r);
+                    }
+                }
+            }
+            if (hashIndexes [c] != null)
+            {
+                hashIndexes [c].removeRows (removed, before);
+            }
+            if (sortedIndexes [c] != null)
+            {
+                sortedIndexes [c].removeRows (removed, before);
+            }
+            for (int r = first ; r < size ; r++) // Moves each kept entry up past the removed rows before it
+            {
+                if ((removed [r >> 6] & (1L << r)) == 0)
+                {
+                    if (to != r)
+                    {
+                        writable (to >> SEGMENT_BITS, c).copyCell (c, to & SEGMENT_MASK, segments [r >> SEGMENT_BITS], r & SEGMENT_MASK);
+                    }
+                    to++;
+                }
+            }
+            for (int r = size - count ; r < size ; r++) // Clears the freed rows at the end so the old values can be collected
+            {
+                writable (r >> SEGMENT_BITS, c).clearCell (c, r & SEGMENT_MASK);
+            }
+        }
+        if (file != null) // The file entries move once per row after every category, a category moved earlier must not change what a later one reads
+        {
+            int to = first;
+
+            for (int r = first ; r < size ; r++)
+            {
+                if ((removed [r >> 6] & (1L << r)) == 0)
+                {
+                    if (to != r) // The segment was already made writable when its cells were copied
+                    {
+                        segments [to >> SEGMENT_BITS].copySourceRow (to & SEGMENT_MASK, segments [r >> SEGMENT_BITS], r & SEGMENT_MASK);
+                    }
+                    to++;
+                }
+            }
+        }
+        size -= count;
+
+        while (segmentCount > ((size + SEGMENT_MASK) >> SEGMENT_BITS)) // Releases the segments that are now empty
+        {
+            segments [--segmentCount] = null;
+        }
+    }
+
+
+    // Decodes a cell from the mapped file if it has not been used yet
+    private void decode (int column, int row)
+    {
+        Segment segment; // The segment that holds the entry
+        String value;
+        boolean isNumber;
+
+        checkRow (row);
+        segment = segments [row >> SEGMENT_BITS];
+        if (segment.isMapped (column, row & SEGMENT_MASK))
+        {
+            ColumnDictionary dictionary = dictionaries [column];
+            int code;
+
+            value = file.get (column, segment.sourceRows [row & SEGMENT_MASK]);
+            segment = writable (row >> SEGMENT_BITS, column);
+            code = (dictionary == null) ? -1 : dictionary.code (value);
+            isNumber = (code >= 0) ? dictionary.isNumeric (code) : isNumber (value);
+            put (segment, column, row & SEGMENT_MASK, value, isNumber, (code >= 0) ? dictionary.number (code) : isNumber ? Double.parseDouble (value) : 0);
+            mappedCount [column]--;
+            if (isNumber)
+            {
+                numericCount [column]++;
+            }
+        }
+    }
+
+
+    // Writes a cell into its segment, as a dictionary code or as a String
+    private void put (Segment segment, int column, int offset, String value, boolean isNumber, double number)
+    {
+        ColumnDictionary dictionary = dictionaries [column];
+
+        if (dictionary != null)
+        {
+            int code = dictionary.add (value, isNumber, number);
+
+            if (dictionary.size () <= DICTIONARY_LIMIT || dictionary.size () <= size / 4) // Low cardinality, each value repeats about four times or more
+            {
+                segment.storeCode (column, offset, code, isNumber, number);
+                return;
+            }
+            for (int s = 0 ; s < segmentCount ; s++) // The category has too many distinct values for a dictionary to save anything
+            {
+                writable (s, column).toPlain (column, dictionary);
+            }
+            dictionaries [column] = null;
+        }
+        segment.store (column, offset, value, isNumber, number);
+    }
+
+
+    // Returns the exact-match index of a category, building it the first time the category is searched
+    // Synchronized so that threads reading the table at the same time build the index once
+    private synchronized HashIndex hashIndex (int column)
+    {
+        if (hashIndexes [column] == null)
+        {
+            hashIndexes [column] = new HashIndex (this, column);
+        }
+        return hashIndexes [column];
+    }
+
+
+    // Returns the sorted index of a category, building it the first time it is needed
+    private synchronized SortedIndex sortedIndex (int column)
+    {
+        if (sortedIndexes [column] == null)
+        {
+            sortedIndexes [column] = new SortedIndex (this, column);
+        }
+        return sortedIndexes [column];
+    }
+
+
+    // Returns the value of a cell that is not in the mapped file
+    private String value (Segment segment, int column, int offset)
+    {
+        if (segment.codes [column] != null)
+        {
+            return dictionaries [column].value (segment.codes [column] [offset]);
+        }
+        return (segment.values [column] == null) ? null : segment.values [column] [offset];
+    }
+
+
+    // Returns the segment at an index so that a category of it can be changed
+    // A segment that a snapshot in use may still read is replaced by a copy first, and the category gets its own arrays in the copy
+    private Segment writable (int index, int column)
+    {
+        Segment segment = segments [index];
+
+        if (segment.version != version && snapshots.get () > 0)
+        {
+            segment = new Segment (segment, version);
+            segments [index] = segment;
+        }
+        segment.own (column);
+        segment.file = -1; // The segment no longer matches the segment file it was read from or saved to
+        return segment;
+    }
+
+
+    // Makes sure the table is not a snapshot, which cannot be changed
+    private void checkChange ()
+    {
+        if (source != null)
+        {
+            throw new UnsupportedOperationException ("A snapshot of a table cannot be changed");
+        }
+    }
+
+
+    // Makes sure a row id belongs to an existing entry
+    private void checkRow (int row)
+    {
+        if (row < 0 || row >= size)
+        {
+            throw new IndexOutOfBoundsException ("Row " + row + " does not exist, the table has " + size + " entries");
+        }
+    }
+}
@@ -0,0 +1,412 @@
+/*--------------------------------------------------------------------------------------*/
+/*                                                                                      */
+/*  TableSort.java - Sorts the entries of a Table by category.                          */
+/*                                                                                      */
+/*                   A stable merge sort orders the row ids using the priority rule     */
+/*                   (the chosen category first, then the remaining categories from     */
+/*                   smallest to largest category number), and the resulting order is   */
+/*                   applied to the table in a single pass at the end. Numbers are      */
+/*                   compared using the doubles the Table parsed when each cell was     */
+/*                   stored, so no text is parsed while sorting.                        */
+/*                                                                                      */
+/*                   Tables with at least Table.parallelThreshold entries are sorted on */
+/*                   the fork-join pool: each half is sorted at the same time, and two  */
+/*                   sorted halves are merged in parallel by splitting the larger half  */
+/*                   at its middle and binary searching the matching place in the       */
+/*                   other one. The merge stays stable, so the order is the same as the */
+/*                   one the sort on a single thread gives.                             */
+/*                                                                                      */
+/*                   Values that can be read as numbers are compared numerically, other */
+/*                   values are compared with compareTo. Within a category numbers are  */
+/*                   placed before text so that the order is the same for every pair.   */
+/*                                                                                      */
+/*--------------------------------------------------------------------------------------*/
+
+import java.util.*;
+import java.util.concurrent.*;
+
+class TableSort
+{
+    static final int INSERTION_THRESHOLD = 32; // Runs shorter than this are sorted with insertion sort
+    static final int MIN_PARALLEL_RUN = 1 << 12; // Parts of a parallel sort or merge are never split below this many entries
+
+    private final Table table; // The table that is being sorted
+    private final int[] priority; // The categories to compare, in order of priority
+    private final int[] types; // The column type of each priority category
+    private final int direction; // 1 for ascending order, -1 for descending order
+
+
+    // Prepares the comparator chain for the given priority order
+    private TableSort (Table table, int[] priority, boolean descending)
+    {
+        this.table = table;
+        this.priority = priority;
+        direction = descending ? -1 : 1;
+        types = new int [priority.length];
+
+        for (int i = 0 ; i < priority.length ; i++) // The column types let categories with a single kind of value skip the type check
+        {
+            types [i] = table.columnType (priority [i]);
+        }
+    }
+
+
+    // Compares two entries category by category in the order of priority, returns a negative number, zero or a positive number
+    // if the first entry belongs before, with, or after the second entry
+    int compareRows (int row1, int row2)
+    {
+        for (int i = 0 ; i < priority.length ; i++) // Moves on to the next priority when the two entries are equal in the current category
+        {
+            int column = priority [i], result; // The category being compared and the result of comparing it
+            boolean numeric1, numeric2; // If the values of the two entries are numbers
+
+            if (types [i] == Table.TEXT) // Neither value can be a number
+            {
+                result = table.get (column, row1).compareTo (table.get (column, row2));
+            }
+            else if (types [i] == Table.NUMBERS) // Both values are numbers
+            {
+                result = Double.compare (table.number (column, row1), table.number (column, row2));
+            }
+            else
+            {
+                numeric1 = table.isNumeric (column, row1);
+                numeric2 = table.isNumeric (column, row2);
+                if (numeric1 && numeric2) // Using double values when both can be converted
+                {
+                    result = Double.compare (table.number (column, row1), table.number (column, row2));
+                }
+                else if (numeric1 != numeric2) // Numbers are placed before text
+                {
+                    result = numeric1 ? -1 : 1;
+                }
+                else // Using String values when neither can be converted
+                {
+                    result = table.get (column, row1).compareTo (table.get (column, row2));
+                }
+            }
+
+            if (result != 0)
+            {
+                return result * direction;
+            }
+        }
+        return 0; // The two entries are equal in every category
+    }
+
+
+    // Returns the sort priority for a chosen category: the chosen category first, then every other category in ascending order
+    static int[] priority (int category, int columns)
+    {
+        int[] priority = new int [columns];
+        int next = 1; // The next free place in the priority order
+
+        priority [0] = category;
+        for (int c = 0 ; c < columns ; c++)
+        {
+            if (c != category)
+            {
+                priority [next++] = c;
+            }
+        }
+        return priority;
+    }
+
+
+    // Sorts a list of row ids in place, entries that compare equal keep their order in the list
+    static void sortRows (Table table, int[] rows, int[] priority, boolean descending)
+    {
+        TableSort sort = new TableSort (table, priority, descending); // Decodes the categories, so the parallel parts only read the table
+
+        if (Table.parallel (rows.length))
+        {
+            ForkJoinPool.commonPool ().invoke (sort.new SortTask (rows, rows.clone (), 0, rows.length));
+        }
+        else
+        {
+            sort.mergeSort (rows, rows.clone (), 0, rows.length);
+        }
+    }
+
+
+    // Returns the first k entries in sorted order without sorting the others, rows null looks at every entry of the table
+    // Only entries that come after the entry after are returned (-1 to start from the beginning), so a page can continue the last one
+    // A bounded heap keeps the k best entries found so far, so this takes O(n log k) comparisons and never changes the table
+    static int[] top (Table table, int[] rows, int[] priority, boolean descending, int after, int k)
+    {
+        TableSort sort = new TableSort (table, priority, descending);
+        int count = (rows == null) ? table.size () : rows.length;
+        int[] heap = new int [Math.max (0, Math.min (k, count))]; // The best entries so far, the one that comes last in sorted order at the root
+        int size = 0;
+
+        for (int i = 0 ; i < count && heap.length > 0 ; i++)
+        {
+            int row = (rows == null) ? i : rows [i];
+
+            if (after >= 0 && sort.compareEntries (row, after) <= 0) // Already on an earlier page
+            {
+                continue;
+            }
+            if (size < heap.length)
+            {
+                heap [size] = row;
+                sort.siftUp (heap, size++);
+            }
+            else if (sort.compareEntries (row, heap [0]) < 0) // Replaces the entry that comes last
+            {
+                heap [0] = row;
+                sort.siftDown (heap, size);
+            }
+        }
+
+        heap = Arrays.copyOf (heap, size);
+        for (int end = size - 1 ; end > 0 ; end--) // Takes the last entry off the root each time, which leaves the heap in sorted order
+        {
+            int last = heap [0];
+
+            heap [0] = heap [end];
+            sort.siftDown (heap, end);
+            heap [end] = last;
+        }
+        return heap;
+    }
+
+
+    // Returns the row ids of the table in sorted order without changing the table
+    static int[] sortOrder (Table table, int[] priority, boolean descending)
+    {
+        int[] order = new int [table.size ()]; // Starts with the entries in their current order
+
+        for (int i = 0 ; i < order.length ; i++)
+        {
+            order [i] = i;
+        }
+        sortRows (table, order, priority, descending);
+
+        return order;
+    }
+
+
+    // Sorts order [from, to) using work as scratch space, both arrays must hold the same values on entry
+    private void mergeSort (int[] order, int[] work, int from, int to)
+    {
+        if (to - from < INSERTION_THRESHOLD) // Short runs are faster with insertion sort
+        {
+            insertionSort (order, from, to);
+            return;
+        }
+
+        int middle = (from + to) >>> 1;
+
+        mergeSort (work, order, from, middle); // Sorts each half into the scratch array
+        mergeSort (work, order, middle, to);
+
+        if (compareRows (work [middle - 1], work [middle]) <= 0) // The halves are already in order
+        {
+            System.arraycopy (work, from, order, from, to - from);
+            return;
+        }
+
+        for (int i = from, left = from, right = middle ; i < to ; i++) // Merges the two halves back, taking from the left half on ties to stay stable
+        {
+            if (right >= to || (left < middle && compareRows (work [left], work [right]) <= 0))
+            {
+                order [i] = work [left++];
+            }
+            else
+            {
+                order [i] = work [right++];
+            }
+        }
+    }
+
+
+    // Sorts order [from, to) with a stable insertion sort
+    private void insertionSort (int[] order, int from, int to)
+    {
+        for (int i = from + 1 ; i < to ; i++)
+        {
+            int row = order [i]; // The entry that is being moved into place
+            int j = i - 1;
+
+            while (j >= from && compareRows (order [j], row) > 0)
+            {
+                order [j + 1] = order [j];
+                j--;
+            }
+            order [j + 1] = row;
+        }
+    }
+
+
+    // Compares two entries like compareRows, entries that are equal in every category keep their order in the table
+    // This is the order the stable sort gives, so a page of top is the same as the same part of sortOrder
+    private int compareEntries (int row1, int row2)
+    {
+        int result = compareRows (row1, row2);
+
+        return (result != 0) ? result : Integer.compare (row1, row2);
+    }
+
+
+    // Merges source [left, leftEnd) and source [right, rightEnd) into target starting at to, taking from the left run on ties
+    private void merge (int[] source, int left, int leftEnd, int right, int rightEnd, int[] target, int to)
+    {
+        while (left < leftEnd && right < rightEnd)
+        {
+            target [to++] = (compareRows (source [left], source [right]) <= 0) ? source [left++] : source [right++];
+        }
+        System.arraycopy (source, left, target, to, leftEnd - left);
+        System.arraycopy (source, right, target, to + leftEnd - left, rightEnd - right);
+    }
+
+
+    // Returns the first place in the sorted order [from, to) whose entry compares after row, or after or equal to it if skipEqual is false
+    private int search (int[] order, int from, int to, int row, boolean skipEqual)
+    {
+        while (from < to)
+        {
+            int middle = (from + to) >>> 1, result = compareRows (order [middle], row);
+
+            if (result < 0 || (result == 0 && skipEqual))
+            {
+                from = middle + 1;
+            }
+            else
+            {
+                to = middle;
+            }
+        }
+        return from;
+    }
+
+
+    // Moves the root of heap [0, size) down until neither child comes after it
+    private void siftDown (int[] heap, int size)
+    {
+        int parent = 0;
+
+        while (2 * parent + 1 < size)
+        {
+            int child = 2 * parent + 1; // The child that comes last in sorted order
+
+            if (child + 1 < size && compareEntries (heap [child + 1], heap [child]) > 0)
+            {
+                child++;
+            }
+            if (compareEntries (heap [child], heap [parent]) <= 0)
+            {
+                return;
+            }
+            swap (heap, parent, child);
+            parent = child;
+        }
+    }
+
+
+    // Moves heap [child] up until its parent comes after it
+    private void siftUp (int[] heap, int child)
+    {
+        while (child > 0 && compareEntries (heap [child], heap [(child - 1) / 2]) > 0)
+        {
+            swap (heap, child, (child - 1) / 2);
+            child = (child - 1) / 2;
+        }
+    }
+
+
+    // Swaps two entries of an array
+    private static void swap (int[] array, int i, int j)
+    {
+        int temp = array [i];
+
+        array [i] = array [j];
+        array [j] = temp;
+    }
+
+
+    // Sorts order [from, to) like mergeSort, with both halves sorted at the same time and merged in parallel
+    private class SortTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L; // The task is never serialized, the fork-join pool only runs it
+        private final int[] order, work; // The array to sort into and the scratch array, holding the same values on entry
+        private final int from, to; // The part of the arrays to sort
+
+
+        SortTask (int[] order, int[] work, int from, int to)
+        {
+            this.order = order;
+            this.work = work;
+            this.from = from;
+            this.to = to;
+        }
+
+
+        // Sorts the part on this thread once it is small enough, otherwise splits it
+        protected void compute ()
+        {
+            int middle = (from + to) >>> 1;
+
+            if (to - from <= Math.max (Table.parallelThreshold, MIN_PARALLEL_RUN))
+            {
+                mergeSort (order, work, from, to);
+                return;
+            }
+            invokeAll (new SortTask (work, order, from, middle), new SortTask (work, order, middle, to));
+            if (compareRows (work [middle - 1], work [middle]) <= 0) // The halves are already in order
+            {
+                System.arraycopy (work, from, order, from, to - from);
+                return;
+            }
+            new MergeTask (work, from, middle, middle, to, order, from).compute ();
+        }
+    }
+
+
+    // Merges two sorted runs of source into target, splitting the larger run at its middle entry so both sides merge at the same time
+    private class MergeTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L; // The task is never serialized, the fork-join pool only runs it
+        private final int[] source, target; // The array holding the two runs and the array the merged run is written to
+        private final int left, leftEnd, right, rightEnd; // The left run [left, leftEnd) and the right run [right, rightEnd)
+        private final int to; // Where the merged run starts in target
+
+
+        MergeTask (int[] source, int left, int leftEnd, int right, int rightEnd, int[] target, int to)
+        {
+            this.source = source;
+            this.left = left;
+            this.leftEnd = leftEnd;
+            this.right = right;
+            this.rightEnd = rightEnd;
+            this.target = target;
+            this.to = to;
+        }
+
+
+        // Merges on this thread once the runs are small enough, otherwise splits both runs at the same entry
+        // An entry of the left run goes before the equal entries of the right run, so the split keeps the merge stable
+        protected void compute ()
+        {
+            int leftSplit, rightSplit; // Where each run is split, everything before both splits belongs before everything after them
+
+            if ((leftEnd - left) + (rightEnd - right) <= Math.max (Table.parallelThreshold, MIN_PARALLEL_RUN))
+            {
+                merge (source, left, leftEnd, right, rightEnd, target, to);
+                return;
+            }
+            if (leftEnd - left >= rightEnd - right) // Entries of the right run that equal the split entry go after it
+            {
+                leftSplit = (left + leftEnd) >>> 1;
+                rightSplit = search (source, right, rightEnd, source [leftSplit], false);
+            }
+            else // Entries of the left run that equal the split entry go before it
+            {
+                rightSplit = (right + rightEnd) >>> 1;
+                leftSplit = search (source, left, leftEnd, source [rightSplit], true);
+            }
+            invokeAll (new MergeTask (source, left, leftSplit, right, rightSplit, target, to),
+                       new MergeTask (source, leftSplit, leftEnd, rightSplit, rightEnd, target, to + (leftSplit - left) + (rightSplit - right)));
+        }
+    }
+}
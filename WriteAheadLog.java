@@ -0,0 +1,467 @@
+/*--------------------------------------------------------------------------------------*/
+/*                                                                                      */
+/*  WriteAheadLog.java - An append-only log of the changes made to an open database,    */
+/*                       stored next to the database as "<name>.ssf.wal".               */
+/*                                                                                      */
+/*                       Every add, change, delete, empty and sort is appended as a     */
+/*                       small record, so a change is safe on disk as soon as the log   */
+/*                       is synced instead of when the whole .ssf file is rewritten.    */
+/*                       When the database is opened, the records are replayed on top   */
+/*                       of the .ssf file. Saving the database (a checkpoint) writes    */
+/*                       the .ssf file and starts a new, empty log.                     */
+/*                                                                                      */
+/*                       Syncs use group commit: records are buffered as they are       */
+/*                       appended, and one fsync covers every record appended before    */
+/*                       it, so several changes (or several threads) share a sync.      */
+/*                                                                                      */
+/*                       File layout: a header (magic number, version, and the size     */
+/*                       and modified time of the .ssf file the log applies to), then   */
+/*                       records of [length][CRC32][payload] (see LogRecord). A record  */
+/*                       that was only partly written when the program stopped fails    */
+/*                       its check and is dropped along with anything after it.         */
+/*                                                                                      */
+/*                       A database opened read-only only replays the log (read), it    */
+/*                       never cuts off a damaged tail or starts a new log, because the */
+/*                       session that may change the database could still be writing.   */
+/*                                                                                      */
+/*--------------------------------------------------------------------------------------*/
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.nio.file.attribute.*;
+import java.util.concurrent.*;
+
+class WriteAheadLog
+{
+    static final int MAGIC = 0x5353464c; // "SSFL", marks the start of a log file
+    static final int VERSION = 1; // The version of the log file layout
+    static final int HEADER_SIZE = 4 + 4 + 8 + 8; // Magic number, version, .ssf size and .ssf modified time
+    static final long CHECKPOINT_SIZE = 4 << 20; // Once the log is larger than this, the changes are folded back into the .ssf file
+
+    static final byte ADD = 1; // Record of an entry added to the end of the table
+    static final byte SET = 2; // Record of a category value changed
+    static final byte DELETE = 3; // Record of an entry removed
+    static final byte CLEAR = 4; // Record of every entry removed
+    static final byte SORT = 5; // Record of the table sorted by a priority order
+    static final byte DELETE_ALL = 6; // Record of several entries removed at once
+    static final byte TRANSACTION = 7; // Record holding every record of a committed transaction, replayed all together or not at all
+
+    private final File file; // The log file
+    private final File databaseFile; // The .ssf file the log applies to
+    private FileChannel channel; // Appends to the log file
+
+    private final Object lock = new Object (); // Guards the buffered records and the sync state
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream (); // Records that were appended but not yet written
+    private long appended = 0; // The number of records appended so far
+    private long durable = 0; // The number of records that are synced to disk
+    private long size; // The size of the log file including records that are still buffered
+    private boolean syncing = false; // True while a thread is writing and syncing a batch of records
+    private LogRecord transaction = null; // Collects the records of the open transaction until commit, null if no transaction is open
+
+
+    // Opens the log of a database file, the log is created empty if it does not exist unless it is only read
+    private WriteAheadLog (File databaseFile, boolean readOnly) throws IOException
+    {
+        this.databaseFile = databaseFile;
+        file = new File (databaseFile.getPath () + ".wal");
+        if (readOnly)
+        {
+            channel = FileChannel.open (file.toPath (), StandardOpenOption.READ);
+        }
+        else
+        {
+            channel = FileChannel.open (file.toPath (), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        size = channel.size ();
+    }
+
+
+    // Opens the log of a database, replays its records onto the table that was read from the .ssf file and attaches it to the table
+    static WriteAheadLog open (String databaseName, Table table) throws IOException
+    {
+        WriteAheadLog log = new WriteAheadLog (new File (databaseName), false);
+
+        if (!log.replay (table, true)) // A missing, damaged or outdated log is replaced by an empty one
+        {
+            log.reset ();
+        }
+        table.attachLog (log);
+        return log;
+    }
+
+
+    // Appends a record of an entry added to the end of the table
+    void add (String[] row) throws IOException
+    {
+        LogRecord record = LogRecord.start (ADD);
+
+        record.writeInt (row.length);
+        for (int c = 0 ; c < row.length ; c++)
+        {
+            record.writeUTF (row [c]);
+        }
+        append (record);
+    }
+
+
+    // Starts a transaction, the records appended until commit are kept back and then appended as a single record
+    void begin () throws IOException
+    {
+        LogRecord record = LogRecord.start (TRANSACTION);
+
+        synchronized (lock)
+        {
+            transaction = record;
+        }
+    }
+
+
+    // Appends a record of every entry being removed
+    void clear () throws IOException
+    {
+        append (LogRecord.start (CLEAR));
+    }
+
+
+    // Closes the log file, records that were not synced are written first
+    void close () throws IOException
+    {
+        sync ();
+        channel.close ();
+    }
+
+
+    // Ends the open transaction by appending its records as one record, so a crash keeps either all of them or none
+    // Like any record it is safe on disk after the next sync
+    void commit () throws IOException
+    {
+        LogRecord record;
+
+        synchronized (lock)
+        {
+            record = transaction;
+            transaction = null;
+        }
+        if (record != null && record.size () > 1) // A transaction without changes holds only its type
+        {
+            append (record);
+        }
+    }
+
+
+    // Appends a record of an entry being removed
+    void delete (int row) throws IOException
+    {
+        LogRecord record = LogRecord.start (DELETE);
+
+        record.writeInt (row);
+        append (record);
+    }
+
+
+    // Appends a record of several entries being removed at once, given as a bitmap of their row ids from before the removal
+    void deleteAll (long[] removed, int count) throws IOException
+    {
+        LogRecord record = LogRecord.start (DELETE_ALL);
+
+        record.writeInt (count);
+        for (int w = 0 ; w < removed.length ; w++)
+        {
+            for (long bits = removed [w] ; bits != 0 ; bits &= bits - 1)
+            {
+                record.writeInt ((w << 6) + Long.numberOfTrailingZeros (bits));
+            }
+        }
+        append (record);
+    }
+
+
+    // Closes and deletes the log file, used when the database is renamed or deleted
+    void discard () throws IOException
+    {
+        synchronized (lock)
+        {
+            pending.reset ();
+        }
+        channel.close ();
+        file.delete ();
+    }
+
+
+    // Returns true if the log has grown large enough that it should be folded back into the .ssf file
+    boolean needsCheckpoint ()
+    {
+        synchronized (lock)
+        {
+            return size > CHECKPOINT_SIZE;
+        }
+    }
+
+
+    // Replays the records of a database's log onto a table without attaching the log or changing the log file,
+    // used when the database is opened read-only
+    static void read (String databaseName, Table table) throws IOException
+    {
+        WriteAheadLog log;
+
+        if (!new File (databaseName + ".wal").exists ()) // The database was saved without a log
+        {
+            return;
+        }
+        log = new WriteAheadLog (new File (databaseName), true);
+        try
+        {
+            log.replay (table, false);
+        }
+        finally
+        {
+            log.channel.close ();
+        }
+    }
+
+
+    // Starts a new, empty log for the .ssf file as it is now, called after the .ssf file was saved with every change
+    void reset () throws IOException
+    {
+        ByteBuffer header = ByteBuffer.allocate (HEADER_SIZE); // The header ties the log to the current version of the .ssf file
+        BasicFileAttributes attributes = Files.readAttributes (databaseFile.toPath (), BasicFileAttributes.class);
+
+        header.putInt (MAGIC).putInt (VERSION).putLong (attributes.size ()).putLong (attributes.lastModifiedTime ().to (TimeUnit.MICROSECONDS));
+        header.flip ();
+
+        synchronized (lock)
+        {
+            while (syncing) // Waits for a batch that is being written to finish
+            {
+                waitForSync ();
+            }
+            pending.reset ();
+            channel.truncate (0);
+            channel.position (0);
+            while (header.hasRemaining ())
+            {
+                channel.write (header);
+            }
+            channel.force (true);
+            size = HEADER_SIZE;
+            durable = appended;
+        }
+    }
+
+
+    // Drops the records of the open transaction
+    void rollback ()
+    {
+        synchronized (lock)
+        {
+            transaction = null;
+        }
+    }
+
+
+    // Appends a record of a category value being changed
+    void set (int column, int row, String value) throws IOException
+    {
+        LogRecord record = LogRecord.start (SET);
+
+        record.writeInt (column);
+        record.writeInt (row);
+        record.writeUTF (value);
+        append (record);
+    }
+
+
+    // Appends a record of the table being sorted
+    void sort (int[] priority, boolean descending) throws IOException
+    {
+        LogRecord record = LogRecord.start (SORT);
+
+        record.writeInt (priority.length);
+        for (int i = 0 ; i < priority.length ; i++)
+        {
+            record.writeInt (priority [i]);
+        }
+        record.writeBoolean (descending);
+        append (record);
+    }
+
+
+    // Makes every record appended so far safe on disk, one sync covers the records of every thread that is waiting
+    void sync () throws IOException
+    {
+        long target; // The records that have to be on disk before returning
+        byte[] batch; // The records this thread writes if it leads the sync
+        long batchEnd; // The number of records appended when the batch was taken
+        boolean written = false;
+
+        synchronized (lock)
+        {
+            target = appended;
+            while (durable < target && syncing) // Another thread is syncing, its sync may cover these records too
+            {
+                waitForSync ();
+            }
+            if (durable >= target)
+            {
+                return;
+            }
+            syncing = true; // This thread leads the next sync and takes every record buffered so far
+            batch = pending.toByteArray ();
+            pending.reset ();
+            batchEnd = appended;
+        }
+
+        try
+        {
+            ByteBuffer buffer = ByteBuffer.wrap (batch);
+
+            channel.position (channel.size ());
+            while (buffer.hasRemaining ())
+            {
+                channel.write (buffer);
+            }
+            channel.force (false);
+            written = true;
+        }
+        finally
+        {
+            synchronized (lock)
+            {
+                syncing = false;
+                if (written)
+                {
+                    durable = Math.max (durable, batchEnd);
+                }
+                lock.notifyAll ();
+            }
+        }
+    }
+
+
+    // Adds a finished record to the buffer of records waiting to be synced, or to the open transaction
+    private void append (LogRecord record) throws IOException
+    {
+        synchronized (lock)
+        {
+            if (transaction != null) // The CRC of the transaction record covers the records inside it
+            {
+                transaction.writeInt (record.buffer.size ());
+                record.buffer.writeTo (transaction);
+                return;
+            }
+            size += record.frame (pending);
+            appended++;
+        }
+    }
+
+
+    // Applies one record to the table
+    private static void apply (Table table, DataInputStream record) throws IOException
+    {
+        byte type = record.readByte ();
+        int count, column, row;
+
+        switch (type)
+        {
+            case ADD:
+                count = record.readInt ();
+                String[] values = new String [count];
+                for (int c = 0 ; c < count ; c++)
+                {
+                    values [c] = record.readUTF ();
+                }
+                table.add (values);
+                break;
+            case SET:
+                column = record.readInt ();
+                row = record.readInt ();
+                table.set (column, row, record.readUTF ());
+                break;
+            case DELETE:
+                table.remove (record.readInt ());
+                break;
+            case CLEAR:
+                table.clear ();
+                break;
+            case DELETE_ALL:
+                count = record.readInt ();
+                int[] rows = new int [count];
+                for (int i = 0 ; i < count ; i++)
+                {
+                    rows [i] = record.readInt ();
+                }
+                table.removeAll (rows);
+                break;
+            case TRANSACTION:
+                while (record.available () > 0) // Each record of the transaction is [length][payload]
+                {
+                    byte[] change = new byte [record.readInt ()];
+
+                    record.readFully (change);
+                    apply (table, new DataInputStream (new ByteArrayInputStream (change)));
+                }
+                break;
+            case SORT:
+                count = record.readInt ();
+                int[] priority = new int [count];
+                for (int i = 0 ; i < count ; i++)
+                {
+                    priority [i] = record.readInt ();
+                }
+                table.sort (priority, record.readBoolean ());
+                break;
+            default:
+                throw new IOException ("Unknown record type " + type + " in the write-ahead log");
+        }
+    }
+
+
+    // Replays the records of the log onto the table, returns false if the log does not belong to the current .ssf file
+    // A damaged tail is cut off if repair is true, otherwise the log file is left as it is
+    private boolean replay (Table table, boolean repair) throws IOException
+    {
+        ByteBuffer header = ByteBuffer.allocate (HEADER_SIZE);
+        BasicFileAttributes attributes = Files.readAttributes (databaseFile.toPath (), BasicFileAttributes.class);
+        DataInputStream in;
+        long position; // The end of the last complete record
+
+        if (size < HEADER_SIZE)
+        {
+            return false;
+        }
+        channel.read (header, 0);
+        header.flip ();
+        if (header.getInt () != MAGIC || header.getInt () != VERSION || header.getLong () != attributes.size ()
+                || header.getLong () != attributes.lastModifiedTime ().to (TimeUnit.MICROSECONDS))
+        {
+            return false; // The .ssf file was saved after the log was written, so its changes are already in the file
+        }
+
+        in = new DataInputStream (new BufferedInputStream (Channels.newInputStream (channel.position (HEADER_SIZE))));
+        position = LogRecord.read (in, HEADER_SIZE, size, record -> apply (table, record));
+
+        if (repair && position < size) // Cuts off a damaged tail so new records follow the last good one
+        {
+            channel.truncate (position);
+            size = position;
+        }
+        return true;
+    }
+
+
+    // Waits for the thread that is syncing to finish, must be called while holding the lock
+    private void waitForSync () throws IOException
+    {
+        try
+        {
+            lock.wait ();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread ().interrupt ();
+            throw new InterruptedIOException ("Interrupted while waiting for the write-ahead log to sync");
+        }
+    }
+}